@@ -16,7 +16,7 @@ import io.manebot.command.exception.CommandArgumentException;
 import io.manebot.command.exception.CommandExecutionException;
 import io.manebot.conversation.ConversationProvider;
 import io.manebot.conversation.DefaultConversationProvider;
-import io.manebot.database.DatabaseManager;
+import io.manebot.database.CachedDatabase;
 import io.manebot.database.HibernateManager;
 import io.manebot.database.model.*;
 import io.manebot.database.model.User;
@@ -24,6 +24,7 @@ import io.manebot.database.model.UserAssociation;
 import io.manebot.database.model.UserBan;
 import io.manebot.database.model.UserGroup;
 import io.manebot.event.DefaultEventManager;
+import io.manebot.event.EventDispatchPool;
 import io.manebot.event.EventDispatcher;
 import io.manebot.event.EventHandler;
 import io.manebot.event.EventListener;
@@ -46,6 +47,8 @@ import org.eclipse.aether.repository.RemoteRepository;
 import java.io.*;
 import java.util.*;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.logging.ConsoleHandler;
 import java.util.logging.FileHandler;
@@ -68,7 +71,7 @@ public final class DefaultBot implements Bot, Runnable {
 
     private final DefaultEventManager eventManager = new DefaultEventManager();
     private final EventDispatcher eventDispatcher = eventManager;
-    private final CommandManager commandManager = new DefaultCommandManager();
+    private final DefaultCommandManager commandManager = new DefaultCommandManager();
     private final ConversationProvider conversationProvider = new DefaultConversationProvider(this);
     private final DefaultUserRegistration userRegistration = new DefaultUserRegistration(this);
     private AliasManager aliasManager;
@@ -82,12 +85,14 @@ public final class DefaultBot implements Bot, Runnable {
 
     // Mutable providers, managers, types
     private ArtifactRepository repository;
-    private UserManager userManager;
-    private DatabaseManager databaseManager;
+    private DefaultUserManager userManager;
+    private HibernateManager databaseManager;
     private DefaultPlatformManager platformManager;
     private DefaultPluginManager pluginManager;
     private ChatDispatcher chatDispatcher;
     private CommandDispatcher commandDispatcher;
+    private ShellPool shellPool;
+    private ScheduledExecutorService userExecutor;
     private io.manebot.database.Database systemDatabase;
 
     private DefaultBot() { }
@@ -127,6 +132,10 @@ public final class DefaultBot implements Bot, Runnable {
         return pluginManager;
     }
 
+    public DefaultEventManager getEventManager() {
+        return eventManager;
+    }
+
     @Override
     public EventDispatcher getEventDispatcher() {
         return eventDispatcher;
@@ -142,8 +151,12 @@ public final class DefaultBot implements Bot, Runnable {
         return chatDispatcher;
     }
 
+    public DefaultCommandManager getCommandManager() {
+        return commandManager;
+    }
+
     @Override
-    public UserManager getUserManager() {
+    public DefaultUserManager getUserManager() {
         return userManager;
     }
 
@@ -266,6 +279,21 @@ public final class DefaultBot implements Bot, Runnable {
                 for (io.manebot.plugin.Plugin plugin : pluginManager.getLoadedPlugins())
                     recursivelyDisablePlugin(plugin);
             } finally {
+                // Commands still running record sightings, so they finish before the final flush.
+                if (shellPool != null) {
+                    shellPool.shutdown();
+
+                    try {
+                        if (!shellPool.awaitTermination(30, TimeUnit.SECONDS))
+                            Logger.getGlobal().warning("Timed out waiting for running commands to finish.");
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+
+                userManager.getLastSeenTracker().stop();
+                if (userExecutor != null) userExecutor.shutdown();
+                if (databaseManager != null) databaseManager.close();
                 setState(BotState.STOPPED);
                 Logger.getGlobal().info("Shutdown complete.");
             }
@@ -367,10 +395,29 @@ public final class DefaultBot implements Bot, Runnable {
                         model.registerEntity(Property.class);
                         model.registerEntity(Repository.class);
                         model.registerEntity(CommandAlias.class);
+
+                        // Rarely written, and looked up repeatedly:
+                        if (model instanceof CachedDatabase.CachingModelConstructor) {
+                            CachedDatabase.CachingModelConstructor cachingModel =
+                                    (CachedDatabase.CachingModelConstructor) model;
+                            cachingModel.cacheEntity(io.manebot.database.model.Platform.class);
+                            cachingModel.cacheEntity(Plugin.class);
+                            cachingModel.cacheEntity(Repository.class);
+                            cachingModel.cacheEntity(CommandAlias.class);
+                            cachingModel.cacheEntity(Group.class);
+                            cachingModel.cacheEntity(Permission.class);
+                            cachingModel.cacheEntity(Property.class);
+                        }
                     });
 
-                    bot.userManager = new DefaultUserManager(bot.systemDatabase);
+                    bot.userManager = new DefaultUserManager(
+                            bot.systemDatabase,
+                            readPropertySection(variables, "user")
+                    );
+                    bot.userManager.getBanIndex().load();
+                    bot.userManager.loadDirectory();
                     bot.platformManager = new DefaultPlatformManager(bot.systemDatabase);
+                    bot.platformManager.load();
                 }
             } catch (Exception ex) {
                 throw new IllegalArgumentException("Problem reading Hibernate configuration", ex);
@@ -460,8 +507,40 @@ public final class DefaultBot implements Bot, Runnable {
 
             logger.info("Logged in as " + user.getName() + ".");
 
+            DefaultVirtual.ThreadMode threadMode = DefaultVirtual.ThreadMode.valueOf(
+                    readPropertySection(variables, "virtual")
+                            .getProperty("threads", DefaultVirtual.ThreadMode.PLATFORM.name())
+                            .toUpperCase()
+            );
+
+            if (!threadMode.isSupported()) {
+                logger.warning(threadMode.name().toLowerCase() + " threads are not supported by this JVM; " +
+                        "using platform threads.");
+                threadMode = DefaultVirtual.ThreadMode.PLATFORM;
+            }
+
             DefaultVirtual virtual;
-            Virtual.setInstance(virtual = new DefaultVirtual(user));
+            Virtual.setInstance(virtual = new DefaultVirtual(
+                    user,
+                    threadMode,
+                    bot.userManager.getPermissionCache()
+            ));
+            logger.info("Using " + threadMode.name().toLowerCase() + " threads for processes.");
+
+            Properties eventProperties = readPropertySection(variables, "event");
+
+            // Asynchronous events are dispatched by virtual processes, so handlers keep their user context.
+            bot.eventManager.setDispatchPool(EventDispatchPool.fromProperties(
+                    eventProperties,
+                    virtual.newThreadFactory("event")
+            ));
+
+            bot.eventManager.getMetrics().setEnabled(
+                    Boolean.parseBoolean(eventProperties.getProperty("metrics", "false"))
+            );
+
+            bot.userExecutor = Executors.newSingleThreadScheduledExecutor(virtual.newThreadFactory("user"));
+            bot.userManager.getLastSeenTracker().start(bot.userExecutor);
 
             ElevationDispatcher elevationDispatcher = new DefaultElevationDispatcher(
                     user,
@@ -477,16 +556,25 @@ public final class DefaultBot implements Bot, Runnable {
                     elevationDispatcher
             );
 
-            SynchronousTransfer<io.manebot.user.User, AsyncCommandShell, Exception> shellTransfer =
-                    new SynchronousTransfer<>(
-                            Exception.class,
-                            new AsyncCommandShell.ShellFactory(bot.commandManager, bot.eventDispatcher)
-                    );
+            ShellSettings shellSettings = ShellSettings.fromProperties(readPropertySection(variables, "shell"));
 
-            Virtual.getInstance().create(shellTransfer).start();
+            // Shell workers start as root, so they can switch to any user they handle commands for.
+            bot.shellPool = new ShellPool(
+                    virtual.newThreadFactory("shell"),
+                    shellSettings.getWorkers(),
+                    virtual::newUserSwitch
+            );
+
+            AsyncCommandShell.ShellFactory shellFactory = new AsyncCommandShell.ShellFactory(
+                    bot.commandManager,
+                    bot.eventDispatcher,
+                    bot.userManager,
+                    bot.shellPool,
+                    shellSettings
+            );
 
             bot.commandDispatcher = new DefaultCommandDispatcher<>(
-                    new DefaultCommandDispatcher.CachedShellFactory<>(shellTransfer),
+                    shellFactory,
                     bot.eventDispatcher
             );
 
@@ -514,15 +602,19 @@ public final class DefaultBot implements Bot, Runnable {
                     new UserCommand(bot.platformManager, bot.userManager, bot.systemDatabase));
             bot.commandManager.registerExecutor("group", new GroupCommand(bot.userManager, bot.systemDatabase));
             bot.commandManager.registerExecutor("ban", new BanCommand(bot.userManager));
-            bot.commandManager.registerExecutor("unban", new UnbanCommand(bot.userManager));
+            bot.commandManager.registerExecutor("unban",
+                    new UnbanCommand(bot.userManager, bot.userManager.getBanIndex()));
             bot.commandManager.registerExecutor("permission",
                     new PermissionCommand(bot.userManager, bot.conversationProvider)).alias("perm");
-            bot.commandManager.registerExecutor("runtime", new RuntimeCommand());
+            bot.commandManager.registerExecutor("runtime",
+                    new RuntimeCommand(bot.eventManager, bot.userManager, bot.databaseManager));
             bot.commandManager.registerExecutor("nickname", new NicknameCommand(bot.userManager)).alias("nick");
             bot.commandManager.registerExecutor("property",
                     new PropertyCommand(bot.userManager, bot.conversationProvider)).alias("prop");
             bot.commandManager.registerExecutor("repository", new RepositoryCommand(bot.systemDatabase)).alias("repo");
             bot.commandManager.registerExecutor("profile", new ProfileCommand());
+            bot.commandManager.registerExecutor("event", new EventCommand(bot.eventManager.getMetrics()));
+            bot.commandManager.registerExecutor("shell", new ShellCommand(shellFactory));
             bot.commandManager.registerExecutor("whoami", new WhoAmICommand());
             bot.commandManager.registerExecutor("confirm", new ConfirmCommand());
             bot.commandManager.registerExecutor("echo", new EchoCommand());
@@ -543,7 +635,11 @@ public final class DefaultBot implements Bot, Runnable {
                     .setName("Console")
                     .setConnection(new ConsolePlatformConnection(bot, builder.getPlatform()))
             );
-            user.createAssociation(consolePlatformRegistration.getPlatform(), ConsolePlatformConnection.CONSOLE_UID);
+            bot.userManager.createAssociation(
+                    user,
+                    consolePlatformRegistration.getPlatform(),
+                    ConsolePlatformConnection.CONSOLE_UID
+            );
             consolePlatformRegistration.getConnection().connect();
 
             // user registration hook (synchronous transfer queue)
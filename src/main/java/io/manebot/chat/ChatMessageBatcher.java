@@ -0,0 +1,86 @@
+package io.manebot.chat;
+
+import io.manebot.event.DefaultEventManager;
+import io.manebot.event.chat.ChatMessageReceivedEvent;
+
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hands received chat messages to the event dispatch pool in batches.
+ *
+ * Messages are queued, and one pool task at a time dispatches up to a batch of them before handing the rest to a new
+ * task. Listeners therefore see messages in the order they arrived, and a burst of messages costs one hand-off per
+ * batch instead of one per message.
+ */
+class ChatMessageBatcher {
+    private static final int maximumBatchSize = 64;
+
+    private final DefaultEventManager eventManager;
+    private final Queue<PendingMessage> queue = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Set while a batch is queued on, or running in, the pool.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    ChatMessageBatcher(DefaultEventManager eventManager) {
+        this.eventManager = eventManager;
+    }
+
+    /**
+     * Queues an event to be dispatched.
+     * @param event event to dispatch.
+     * @return future completing once the event is dispatched.
+     */
+    Future<ChatMessageReceivedEvent> submit(ChatMessageReceivedEvent event) {
+        PendingMessage message = new PendingMessage(event);
+        queue.add(message);
+        schedule();
+        return message;
+    }
+
+    private void schedule() {
+        if (queue.isEmpty() || !scheduled.compareAndSet(false, true)) return;
+
+        try {
+            eventManager.getDispatchPool().execute(new Batch());
+        } catch (RejectedExecutionException e) {
+            scheduled.set(false);
+
+            PendingMessage message;
+            while ((message = queue.poll()) != null) message.completeExceptionally(e);
+        }
+    }
+
+    private final class Batch extends FutureTask<Void> {
+        private Batch() {
+            super(() -> {
+                PendingMessage message;
+                for (int i = 0; i < maximumBatchSize && (message = queue.poll()) != null; i ++) {
+                    try {
+                        message.complete(eventManager.execute(message.event));
+                    } catch (Throwable e) {
+                        message.completeExceptionally(e);
+                    }
+                }
+            }, null);
+        }
+
+        @Override
+        protected void done() {
+            // Also reached when the pool drops this batch; its messages stay queued for the next one.
+            scheduled.set(false);
+            if (!isCancelled()) schedule();
+        }
+    }
+
+    private static final class PendingMessage extends CompletableFuture<ChatMessageReceivedEvent> {
+        private final ChatMessageReceivedEvent event;
+
+        private PendingMessage(ChatMessageReceivedEvent event) {
+            this.event = event;
+        }
+    }
+}
@@ -7,6 +7,7 @@ import io.manebot.command.CommandSender;
 import io.manebot.command.exception.CommandArgumentException;
 import io.manebot.command.exception.CommandExecutionException;
 import io.manebot.conversation.Conversation;
+import io.manebot.event.DefaultEventManager;
 import io.manebot.event.EventExecutionException;
 import io.manebot.event.chat.ChatMessageReceivedEvent;
 import io.manebot.event.chat.ChatUnknownUserEvent;
@@ -15,13 +16,26 @@ import io.manebot.user.UserAssociation;
 import io.manebot.user.UserRegistration;
 import io.manebot.user.UserType;
 
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Future;
 
 public class DefaultChatDispatcher implements ChatDispatcher {
     private final DefaultBot bot;
+    private final DefaultEventManager eventManager;
+    private final ChatMessageBatcher batcher;
 
     public DefaultChatDispatcher(DefaultBot bot) {
+        this(bot, bot.getEventManager());
+    }
+
+    /**
+     * @param bot bot, used to dispatch commands.
+     * @param eventManager event manager, used to dispatch messages that aren't commands.
+     */
+    DefaultChatDispatcher(DefaultBot bot, DefaultEventManager eventManager) {
         this.bot = bot;
+        this.eventManager = eventManager;
+        this.batcher = new ChatMessageBatcher(eventManager);
     }
 
     @Override
@@ -45,7 +59,8 @@ public class DefaultChatDispatcher implements ChatDispatcher {
         ChatMessage commandMessage = chat.parseCommand(chatMessage);
         if (commandMessage != null) {
             String platformSpecificId = sender.getUsername();
-            UserAssociation userAssociation = chat.getPlatform().getUserAssocation(platformSpecificId);
+            UserAssociation userAssociation =
+                    bot.getUserManager().getUserAssociation(chat.getPlatform(), platformSpecificId);
             if (userAssociation == null)
                 return bot.getEventDispatcher().executeAsync(new ChatUnknownUserEvent(this, commandMessage));
 
@@ -63,7 +78,9 @@ public class DefaultChatDispatcher implements ChatDispatcher {
             );
 
             return bot.getCommandDispatcher().executeAsync(new CommandMessage(commandMessage, commandSender));
-        } else
-            return bot.getEventDispatcher().executeAsync(new ChatMessageReceivedEvent(this, chatMessage));
+        } else if (eventManager.hasListeners(ChatMessageReceivedEvent.class))
+            return batcher.submit(new ChatMessageReceivedEvent(this, chatMessage));
+        else
+            return CompletableFuture.completedFuture(null); // Nobody is listening for chat messages.
     }
 }
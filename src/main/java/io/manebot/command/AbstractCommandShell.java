@@ -9,10 +9,13 @@ import io.manebot.event.EventDispatcher;
 import io.manebot.event.EventExecutionException;
 import io.manebot.event.command.CommandExecutionEvent;
 import io.manebot.plugin.PluginException;
+import io.manebot.user.BanIndex;
+import io.manebot.user.DefaultUserManager;
 import io.manebot.user.User;
 import io.manebot.user.UserBan;
 import io.manebot.virtual.Virtual;
 
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -30,34 +33,63 @@ abstract class AbstractCommandShell implements CommandShell {
 
     private final CommandManager commandManager;
     private final EventDispatcher eventDispatcher;
+    private final DefaultUserManager userManager;
 
-    protected AbstractCommandShell(CommandManager commandManager, EventDispatcher eventDispatcher) {
+    protected AbstractCommandShell(CommandManager commandManager, EventDispatcher eventDispatcher,
+                                   DefaultUserManager userManager) {
         this.commandManager = commandManager;
         this.eventDispatcher = eventDispatcher;
+        this.userManager = userManager;
     }
 
     public abstract User getUser();
 
+    /**
+     * Refuses commands from a user with a ban in effect.
+     * @param banIndex index of bans.
+     * @param user user running a command.
+     * @throws CommandAccessException if the user is banned.
+     */
+    static void checkBan(BanIndex banIndex, User user) throws CommandAccessException {
+        UserBan ban = banIndex.getBan(user);
+        if (ban == null || ban.isPardoned()) return;
+
+        if (ban.getReason() != null)
+            throw new CommandAccessException("You have been banned until " +
+                    ban.getEnd() + " by " +
+                    ban.getBanningUser().getDisplayName() + " (" + ban.getReason() + ")");
+        else
+            throw new CommandAccessException("You have been banned until " +
+                    ban.getEnd() + " by " +
+                    ban.getBanningUser().getDisplayName());
+    }
+
     protected void handleCommand(CommandMessage commandMessage) {
-        String message = commandMessage.getMessage().split("\n")[0].trim();
+        String message = CommandTokenizer.firstLine(commandMessage.getMessage());
 
         Virtual.getInstance().getLogger().info(commandMessage.getSender().getUsername() + " -> " + message);
 
-        // Remove all double-spaces
-        message = message.replace("\t", "\0");
-        while (message.contains("\0\0")) message = message.replace("\0\0", "\0");
-
         // Get command label and its arguments
-        String[] labelAndArguments = message.split("[ ]", 2);
-        String label = labelAndArguments[0];
-        String[] arguments = labelAndArguments.length > 1 ? labelAndArguments[1].split("[ ]") : new String[0];
-
-        label = label.toLowerCase();
+        String[] tokens = CommandTokenizer.tokenize(message);
+        String label = tokens.length > 0 ? tokens[0].toLowerCase() : "";
+        String[] arguments = tokens.length > 1 ? Arrays.copyOfRange(tokens, 1, tokens.length) : new String[0];
 
         try {
             // Find command associated with this label
-            CommandExecutor executor = commandManager.getExecutor(label);
-            if (executor == null) throw new CommandNotFoundException(label);
+            CommandExecutor executor, target;
+            if (commandManager instanceof DefaultCommandManager) {
+                // Aliases are resolved to the command they run along with the label.
+                DefaultCommandManager.Resolution resolution =
+                        ((DefaultCommandManager) commandManager).resolve(label);
+                if (resolution == null) throw new CommandNotFoundException(label);
+
+                executor = resolution.getExecutor();
+                target = resolution.getTarget();
+                arguments = resolution.getArguments(arguments);
+            } else {
+                executor = target = commandManager.getExecutor(label);
+                if (executor == null) throw new CommandNotFoundException(label);
+            }
 
             try {
                 eventDispatcher.execute(
@@ -67,24 +99,14 @@ abstract class AbstractCommandShell implements CommandShell {
                 throw new CommandExecutionException(e);
             }
 
-            UserBan ban = getUser().getBan();
-            if (ban != null && !ban.isPardoned()) {
-                if (ban.getReason() != null)
-                    throw new CommandAccessException("You have been banned until " +
-                            ban.getEnd() + " by " +
-                            ban.getBanningUser().getDisplayName() + " (" + ban.getReason() + ")");
-                else
-                    throw new CommandAccessException("You have been banned until " +
-                            ban.getEnd() + " by " +
-                            ban.getBanningUser().getDisplayName());
-            }
+            checkBan(userManager.getBanIndex(), getUser());
 
-            if (executor.isBuffered() && commandMessage.getSender().getChat().isBuffered())
+            if (target.isBuffered() && commandMessage.getSender().getChat().isBuffered())
                 commandMessage.getSender().begin();
 
             try {
                 try {
-                    executor.execute(commandMessage.getSender(), label, arguments);
+                    target.execute(commandMessage.getSender(), label, arguments);
                 } catch (IllegalArgumentException e) {
                     throw new CommandArgumentException(e.getMessage());
                 }
@@ -141,7 +163,7 @@ abstract class AbstractCommandShell implements CommandShell {
         } finally {
             commandMessage.getSender().end();
 
-            getUser().setLastSeenDate(Calendar.getInstance().getTime());
+            userManager.getLastSeenTracker().seen(getUser(), Calendar.getInstance().getTime());
         }
     }
 }
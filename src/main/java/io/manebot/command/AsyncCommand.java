@@ -5,12 +5,20 @@ import java.util.concurrent.CompletableFuture;
 public class AsyncCommand {
     private final CompletableFuture<Boolean> future;
     private final CommandMessage commandMessage;
+    private final long created = System.nanoTime();
 
     AsyncCommand(CommandMessage commandMessage) {
         this.future = new CompletableFuture<>();
         this.commandMessage = commandMessage;
     }
 
+    /**
+     * @return value of {@link System#nanoTime()} when the command was queued.
+     */
+    public long getCreated() {
+        return created;
+    }
+
     public CompletableFuture<Boolean> getFuture() {
         return future;
     }
@@ -2,42 +2,60 @@ package io.manebot.command;
 
 import io.manebot.command.exception.CommandExecutionException;
 import io.manebot.event.EventDispatcher;
-import io.manebot.lambda.ThrowingFunction;
+import io.manebot.user.DefaultUserManager;
 import io.manebot.user.User;
-import io.manebot.virtual.Virtual;
-import io.manebot.virtual.VirtualProcess;
+import io.manebot.virtual.UserSwitch;
 
-import java.util.LinkedHashMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.function.Function;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class AsyncCommandShell extends AbstractCommandShell implements Runnable {
-    private final long maximumIdleTime = 120_000L;
-    private static final int defaultBacklog = 3;
+/**
+ * Command shell of one user. Commands are queued per user and handled one at a time, in order, by a {@link ShellPool}.
+ */
+public class AsyncCommandShell extends AbstractCommandShell {
+    private static final long maximumIdleTime = 120_000L;
 
-    private final Runnable complete;
     private final User user;
+    private final ShellPool pool;
     private final BlockingDeque<AsyncCommand> queue;
+    private final int backlog;
+    private final ShellSettings.OverflowPolicy overflowPolicy;
+    private final Semaphore inFlight;
 
-    private final VirtualProcess process;
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+    private final AtomicLong maximumWaitNanos = new AtomicLong();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
 
-    private boolean running = false;
+    /**
+     * Set while the shell is queued on, or being handled by, the pool.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
 
-    AsyncCommandShell(CommandManager commandManager, EventDispatcher eventDispatcher,
-                      User user, int backlog, Runnable complete) {
-        super(commandManager, eventDispatcher);
+    private volatile boolean open = true;
+    private volatile long lastActive = System.currentTimeMillis();
+
+    AsyncCommandShell(CommandManager commandManager, EventDispatcher eventDispatcher, DefaultUserManager userManager,
+                      User user, ShellPool pool, ShellSettings settings, Semaphore inFlight) {
+        super(commandManager, eventDispatcher, userManager);
 
-        this.complete = complete;
         this.user = user;
+        this.pool = pool;
+        this.backlog = settings.getBacklog(user.getType());
         this.queue = new LinkedBlockingDeque<>(backlog);
-        this.process = Virtual.getInstance().create(this);
-    }
-
-    public boolean isRunning() {
-        return running;
+        this.overflowPolicy = settings.getOverflowPolicy();
+        this.inFlight = inFlight;
     }
 
     @Override
@@ -45,23 +63,6 @@ public class AsyncCommandShell extends AbstractCommandShell implements Runnable
         return user;
     }
 
-    public synchronized void setRunning(boolean b) {
-        if (running != b) {
-            if (b) {
-                if (!process.isRunning()) {
-                    process.changeUser(getUser());
-                    process.start();
-                }
-            } else if (process.isRunning() && !process.isCallerSelf()) {
-                process.interrupt();
-            }
-
-            this.running = b;
-
-            if (!b) complete.run();
-        }
-    }
-
     @Override
     public void execute(CommandMessage commandMessage) throws CommandExecutionException {
         try {
@@ -76,92 +77,249 @@ public class AsyncCommandShell extends AbstractCommandShell implements Runnable
         }
     }
 
+    /**
+     * Queues a command. When the shell can't take the command, the sender is told so and the returned future
+     * completes with <code>false</code>.
+     * @param commandMessage command to queue.
+     * @return future completing once the command has been handled.
+     */
     @Override
     public Future<Boolean> executeAsync(CommandMessage commandMessage) {
-        AsyncCommand command;
+        AsyncCommand command = new AsyncCommand(commandMessage);
+        AsyncCommand oldest = null;
+        String rejection = null;
+
+        synchronized (queue) {
+            if (!open) throw new IllegalStateException("shell is not running");
+
+            if (overflowPolicy == ShellSettings.OverflowPolicy.COALESCE) {
+                for (AsyncCommand pending : queue) {
+                    if (isDuplicate(pending.getMessage(), commandMessage)) {
+                        coalesced.increment();
+                        return pending.getFuture();
+                    }
+                }
+            }
+
+            if (!inFlight.tryAcquire()) {
+                rejection = "The bot is busy; please try again in a moment.";
+            } else if (!queue.offerLast(command)) {
+                if (overflowPolicy == ShellSettings.OverflowPolicy.DROP_OLDEST
+                        && (oldest = queue.pollFirst()) != null) {
+                    dropped.increment();
+                    inFlight.release();
+                    queue.offerLast(command);
+                } else {
+                    inFlight.release();
+                    rejection = "You have too many commands pending; please wait for them to finish.";
+                }
+            }
+        }
 
-        if (!isRunning()) throw new IllegalStateException("shell is not running");
+        if (oldest != null)
+            decline(oldest, "Your command was skipped because newer commands were sent.");
 
-        if (!queue.add(command = new AsyncCommand(commandMessage)))
-            throw new IllegalStateException("shell queue is full");
+        if (rejection != null) {
+            rejected.increment();
+            decline(command, rejection);
+        } else {
+            schedule();
+        }
 
         return command.getFuture();
     }
 
+    private void schedule() {
+        if (scheduled.compareAndSet(false, true)) pool.schedule(this);
+    }
+
+    /**
+     * Handles the next queued command on the calling pool worker, then hands the shell back to the pool if more
+     * commands are queued. Only one command is handled per turn, so busy users can't starve others.
+     * @param userSwitch switch of the calling worker.
+     */
+    void handleNext(UserSwitch userSwitch) {
+        try {
+            AsyncCommand asyncCommand = queue.pollFirst();
+            if (asyncCommand == null) return;
+
+            long waitNanos = System.nanoTime() - asyncCommand.getCreated();
+            totalWaitNanos.add(waitNanos);
+            maximumWaitNanos.accumulateAndGet(waitNanos, Math::max);
+
+            try {
+                userSwitch.changeUser(getUser());
+                handleCommand(asyncCommand.getMessage());
+            } finally {
+                executed.increment();
+                inFlight.release();
+                lastActive = System.currentTimeMillis();
+                asyncCommand.getMessage().getSender().end();
+                asyncCommand.getFuture().complete(true);
+            }
+        } finally {
+            scheduled.set(false);
+            if (!queue.isEmpty()) schedule();
+        }
+    }
+
+    /**
+     * Closes this shell if it has been idle for a while.
+     * @param now current time, in milliseconds.
+     * @return true if the shell is closed.
+     */
+    boolean closeIfIdle(long now) {
+        synchronized (queue) {
+            if (open && queue.isEmpty() && !scheduled.get() && now - lastActive >= maximumIdleTime)
+                open = false;
+
+            return !open;
+        }
+    }
+
+    private static boolean isDuplicate(CommandMessage a, CommandMessage b) {
+        return a.getMessage().equals(b.getMessage()) &&
+                a.getSender().getChat().equals(b.getSender().getChat());
+    }
+
+    private static void decline(AsyncCommand command, String reason) {
+        try {
+            command.getMessage().getSender().sendMessage(reason);
+            command.getMessage().getSender().end();
+        } catch (Throwable ex) {
+            Logger.getGlobal().log(Level.FINE, "Problem notifying sender of an unhandled command", ex);
+        } finally {
+            command.getFuture().complete(false);
+        }
+    }
+
     @Override
     public boolean isOpen() {
-        return process.isRunning() && running;
+        return open;
     }
 
     @Override
     public void ensureOpen() {
-        synchronized (process) {
-            if (!isOpen()) throw new IllegalStateException();
-        }
+        if (!isOpen()) throw new IllegalStateException();
     }
 
-    @Override
-    public void run() {
-        try {
-            long lastMessage = System.currentTimeMillis();
-            AsyncCommand asyncCommand;
+    public int getQueueDepth() {
+        return queue.size();
+    }
 
-            while (isRunning()) {
-                long wait = maximumIdleTime - (System.currentTimeMillis() - lastMessage);
+    public int getBacklog() {
+        return backlog;
+    }
 
-                try {
-                    asyncCommand = queue.poll(Math.max(0, wait), TimeUnit.MILLISECONDS);
-                } catch (InterruptedException | IllegalMonitorStateException ex) {
-                    break;
-                }
+    public long getExecuted() {
+        return executed.sum();
+    }
 
-                if (asyncCommand == null) break;
-
-                try {
-                    handleCommand(asyncCommand.getMessage());
-                } catch (java.lang.ThreadDeath ex) {
-                    break;
-                } catch (Throwable ex) {
-                    Logger.getGlobal().log(
-                            Level.SEVERE,
-                            "Unexpected problem handling chat message in shell: " + getUser().getName(),
-                            ex
-                    );
-
-                    break; // Kill shell
-                } finally {
-                    asyncCommand.getMessage().getSender().end();
-                    asyncCommand.getFuture().complete(true);
-                }
-            }
-        } finally {
-            setRunning(false);
-        }
+    /**
+     * @return average time commands spent queued before being handled, in nanoseconds.
+     */
+    public long getAverageWaitNanos() {
+        long executed = getExecuted();
+        return executed == 0 ? 0L : totalWaitNanos.sum() / executed;
+    }
+
+    public long getMaximumWaitNanos() {
+        return maximumWaitNanos.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
     }
 
-    public static class ShellFactory implements ThrowingFunction<User, AsyncCommandShell, Exception> {
+    public long getCoalesced() {
+        return coalesced.sum();
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * Creates and caches the shells of users. Shells for different users are created in parallel, and concurrent
+     * requests for the same user always get the same open shell.
+     */
+    public static class ShellFactory implements Function<User, AsyncCommandShell> {
+        private static final long sweepInterval = 30_000L;
+
         private final CommandManager commandManager;
         private final EventDispatcher eventDispatcher;
-        private final Map<User, AsyncCommandShell> shells = new LinkedHashMap<>();
-
-        public ShellFactory(CommandManager commandManager, EventDispatcher eventDispatcher) {
+        private final DefaultUserManager userManager;
+        private final ShellPool pool;
+        private final ShellSettings settings;
+        private final Semaphore inFlight;
+        private final ConcurrentMap<User, AsyncCommandShell> shells = new ConcurrentHashMap<>();
+        private final AtomicLong lastSweep = new AtomicLong(System.currentTimeMillis());
+
+        public ShellFactory(CommandManager commandManager, EventDispatcher eventDispatcher,
+                            DefaultUserManager userManager,
+                            ShellPool pool, ShellSettings settings) {
             this.commandManager = commandManager;
             this.eventDispatcher = eventDispatcher;
+            this.userManager = userManager;
+            this.pool = pool;
+            this.settings = settings;
+            this.inFlight = new Semaphore(settings.getMaximumInFlight());
         }
 
         @Override
-        public AsyncCommandShell applyChecked(User user) throws Exception {
-            AsyncCommandShell shell = shells.computeIfAbsent(user, key -> new AsyncCommandShell(
-                    commandManager,
-                    eventDispatcher,
-                    key,
-                    defaultBacklog,
-                    () -> shells.remove(key)
-            ));
-
-            shell.setRunning(true);
-
-            return shell;
+        public AsyncCommandShell apply(User user) {
+            sweep();
+
+            AsyncCommandShell shell = shells.get(user);
+            if (shell != null && shell.isOpen()) return shell;
+
+            // Atomic per user; other users' shells are unaffected.
+            return shells.compute(user, (key, existing) ->
+                    existing != null && existing.isOpen() ? existing : new AsyncCommandShell(
+                            commandManager,
+                            eventDispatcher,
+                            userManager,
+                            key,
+                            pool,
+                            settings,
+                            inFlight
+                    )
+            );
+        }
+
+        /**
+         * Closes and forgets idle shells, at most once per sweep interval.
+         */
+        private void sweep() {
+            long now = System.currentTimeMillis();
+            long last = lastSweep.get();
+            if (now - last < sweepInterval || !lastSweep.compareAndSet(last, now)) return;
+
+            for (Map.Entry<User, AsyncCommandShell> entry : shells.entrySet())
+                if (entry.getValue().closeIfIdle(now))
+                    shells.remove(entry.getKey(), entry.getValue());
+        }
+
+        public ShellPool getPool() {
+            return pool;
+        }
+
+        public ShellSettings getSettings() {
+            return settings;
+        }
+
+        /**
+         * @return number of commands pending or executing across all shells.
+         */
+        public int getInFlight() {
+            return settings.getMaximumInFlight() - inFlight.availablePermits();
+        }
+
+        /**
+         * @return snapshot of the open shells.
+         */
+        public Collection<AsyncCommandShell> getShells() {
+            return Collections.unmodifiableList(new ArrayList<>(shells.values()));
         }
     }
-}
\ No newline at end of file
+}
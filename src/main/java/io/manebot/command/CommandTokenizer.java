@@ -0,0 +1,114 @@
+package io.manebot.command;
+
+import java.util.Arrays;
+
+/**
+ * Splits command lines into a label and arguments in a single pass.
+ *
+ * Tokens are separated by single spaces, as they always have been: <code>a  b</code> yields <code>a</code>, an empty
+ * argument, and <code>b</code>, and empty tokens at the end of the line are dropped. Tabs are part of the token they
+ * appear in. A token starting with a double quote extends to the next double quote that is followed by a space or
+ * the end of the line, so <code>say "hello  world"</code> yields the arguments <code>say</code> and
+ * <code>hello  world</code>. Within quotes, <code>\"</code> and <code>\\</code> escape a quote and a backslash. A
+ * quote that is never closed, and any quote or backslash outside a quoted token, is taken literally.
+ */
+public final class CommandTokenizer {
+    private static final String[] noTokens = new String[0];
+    private static final char separator = ' ';
+
+    private CommandTokenizer() {
+
+    }
+
+    /**
+     * Gets the first line of a message, without leading and trailing whitespace.
+     * @param message message to read.
+     * @return first line.
+     */
+    public static String firstLine(String message) {
+        int end = message.indexOf('\n');
+        return (end < 0 ? message : message.substring(0, end)).trim();
+    }
+
+    /**
+     * Splits a single command line into tokens.
+     * @param line line to split.
+     * @return tokens; empty if the line is empty or only spaces.
+     */
+    public static String[] tokenize(String line) {
+        String[] tokens = noTokens;
+        int count = 0;
+
+        // Tokens up to the last one that isn't a trailing empty token.
+        int kept = 0;
+
+        // Once a quote is found to be unterminated, no later quote can be terminated either.
+        boolean unterminated = false;
+
+        int length = line.length();
+        int index = 0;
+
+        while (index < length) {
+            String token = null;
+            boolean quoted = false;
+
+            if (line.charAt(index) == '"' && !unterminated) {
+                int close = findClosingQuote(line, index + 1);
+                if (close >= 0) {
+                    token = unescape(line, index + 1, close);
+                    quoted = true;
+                    index = close + 1;
+                } else {
+                    unterminated = true;
+                }
+            }
+
+            if (token == null) {
+                int end = line.indexOf(separator, index);
+                if (end < 0) end = length;
+                token = line.substring(index, end);
+                index = end;
+            }
+
+            if (count == tokens.length) tokens = Arrays.copyOf(tokens, Math.max(4, count * 2));
+            tokens[count++] = token;
+            if (quoted || !token.isEmpty()) kept = count;
+
+            // Skip the separator; a separator ending the line starts no further token.
+            index++;
+        }
+
+        return kept == tokens.length ? tokens : Arrays.copyOf(tokens, kept);
+    }
+
+    private static int findClosingQuote(String line, int from) {
+        int length = line.length();
+
+        for (int index = from; index < length; index++) {
+            char c = line.charAt(index);
+
+            if (c == '\\') index++; // skip the escaped character
+            else if (c == '"' && (index + 1 == length || line.charAt(index + 1) == separator)) return index;
+        }
+
+        return -1;
+    }
+
+    private static String unescape(String line, int start, int end) {
+        int escape = line.indexOf('\\', start);
+        if (escape < 0 || escape >= end) return line.substring(start, end);
+
+        StringBuilder builder = new StringBuilder(end - start);
+
+        for (int index = start; index < end; index++) {
+            char c = line.charAt(index);
+
+            if (c == '\\' && index + 1 < end && (line.charAt(index + 1) == '"' || line.charAt(index + 1) == '\\'))
+                c = line.charAt(++index);
+
+            builder.append(c);
+        }
+
+        return builder.toString();
+    }
+}
@@ -44,7 +44,16 @@ public class DefaultCommandDispatcher<S extends CommandShell> implements Command
             throw new RuntimeException(e);
         }
 
-        return getShell(commandMessage.getSender().getUser()).executeAsync(commandMessage);
+        S shell = getShell(commandMessage.getSender().getUser());
+
+        try {
+            return shell.executeAsync(commandMessage);
+        } catch (IllegalStateException e) {
+            if (shell.isOpen()) throw e;
+
+            // The shell was closed after it was looked up; the next lookup replaces it.
+            return getShell(commandMessage.getSender().getUser()).executeAsync(commandMessage);
+        }
     }
 
     public static class CachedShellFactory<S extends CommandShell> implements Function<User, S> {
@@ -1,43 +1,297 @@
 package io.manebot.command;
 
+import io.manebot.command.alias.AliasedCommandExecutor;
 import io.manebot.command.executor.CommandExecutor;
 
-import java.util.Collection;
-import java.util.Collections;
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.*;
 
 public final class DefaultCommandManager extends CommandManager {
-    private final Map<String, Registration> registrations = new LinkedHashMap<>();
     private final Object registrationLock = new Object();
 
+    /**
+     * Current registrations. Registration replaces the registry under the registration lock; lookups only ever read
+     * this reference.
+     */
+    private volatile CommandRegistry registry = new CommandRegistry(Collections.emptyMap());
+
     @Override
     public Registration registerExecutor(String label, CommandExecutor executor) {
-        synchronized (registrationLock) {
-            if (registrations.containsKey(label))
-                throw new IllegalArgumentException("command " + label + " already exists.");
-            Registration registration = new Registration(executor, label);
-            registrations.put(label, registration);
-            return registration;
-        }
+        return registerExecutors(Collections.singletonMap(label, executor)).get(0);
     }
 
     @Override
     public void unregisterExecutor(String label) {
+        unregisterExecutors(Collections.singleton(label));
+    }
+
+    /**
+     * Registers several executors at once. Lookups see either none or all of them.
+     * @param executors executors by label, registered in iteration order.
+     * @return registrations, in iteration order.
+     * @throws IllegalArgumentException if any of the labels already exists; none are registered.
+     */
+    public List<Registration> registerExecutors(Map<String, ? extends CommandExecutor> executors) {
+        synchronized (registrationLock) {
+            Map<String, Registration> registrations = new LinkedHashMap<>(registry.registrations);
+            List<Registration> added = new ArrayList<>(executors.size());
+
+            for (Map.Entry<String, ? extends CommandExecutor> entry : executors.entrySet()) {
+                if (registrations.containsKey(entry.getKey()))
+                    throw new IllegalArgumentException("command " + entry.getKey() + " already exists.");
+
+                Registration registration = new Registration(entry.getValue(), entry.getKey());
+                registrations.put(entry.getKey(), registration);
+                added.add(registration);
+            }
+
+            registry = new CommandRegistry(registrations);
+
+            return added;
+        }
+    }
+
+    /**
+     * Unregisters several executors at once. Lookups see either none or all of them removed.
+     * @param labels labels to unregister.
+     */
+    public void unregisterExecutors(Collection<String> labels) {
         synchronized (registrationLock) {
-            registrations.remove(label);
+            Map<String, Registration> registrations = new LinkedHashMap<>(registry.registrations);
+            if (registrations.keySet().removeAll(labels))
+                registry = new CommandRegistry(registrations);
         }
     }
 
     @Override
     public CommandExecutor getExecutor(String label) {
-        Registration registration = registrations.get(label);
-        if (registration == null) return null;
-        return registration.getExecutor();
+        Resolution resolution = registry.resolve(label);
+        if (resolution == null) return null;
+        return resolution.getExecutor();
+    }
+
+    /**
+     * Resolves a label, following aliases to the command they run.
+     * @param label command label.
+     * @return resolution, or null if no command is registered with the label.
+     */
+    public Resolution resolve(String label) {
+        return registry.resolve(label);
     }
 
     @Override
     public Collection<Registration> getRegistrations() {
-        return Collections.unmodifiableCollection(registrations.values());
+        return registry.registrations.values();
+    }
+
+    /**
+     * Gets every registered label starting with a prefix.
+     * @param prefix label prefix.
+     * @return sorted, immutable list of labels.
+     */
+    public List<String> getLabels(String prefix) {
+        return registry.getLabels(prefix);
+    }
+
+    /**
+     * Completes a label prefix, if only one registered label starts with it.
+     * @param prefix label prefix.
+     * @return complete label, or null if no label, or more than one label, starts with the prefix.
+     */
+    public String completeLabel(String prefix) {
+        return registry.completeLabel(prefix);
+    }
+
+    /**
+     * A registered label, resolved through any aliases to the command it runs.
+     *
+     * Subcommands are dispatched by the executors that declare them, so resolution stops at the first executor that
+     * isn't an alias.
+     */
+    public static final class Resolution {
+        private static final String[] noArguments = new String[0];
+
+        private final CommandExecutor executor;
+        private final CommandExecutor target;
+        private final String[] targetArguments;
+
+        private Resolution(CommandExecutor executor, CommandExecutor target, String[] targetArguments) {
+            this.executor = executor;
+            this.target = target;
+            this.targetArguments = targetArguments;
+        }
+
+        /**
+         * @return executor registered with the label.
+         */
+        public CommandExecutor getExecutor() {
+            return executor;
+        }
+
+        /**
+         * @return executor the label runs: the registered executor, or the command an alias leads to.
+         */
+        public CommandExecutor getTarget() {
+            return target;
+        }
+
+        /**
+         * Gets the arguments the target is run with.
+         * @param arguments arguments given to the label.
+         * @return arguments of aliases leading to the target, followed by the given arguments.
+         */
+        public String[] getArguments(String[] arguments) {
+            if (targetArguments.length == 0) return arguments;
+
+            String[] appended = Arrays.copyOf(targetArguments, targetArguments.length + arguments.length);
+            System.arraycopy(arguments, 0, appended, targetArguments.length, arguments.length);
+            return appended;
+        }
+    }
+
+    /**
+     * Immutable snapshot of the registered commands: a trie of labels, each resolved ahead of time.
+     */
+    private static final class CommandRegistry {
+        private final Map<String, Registration> registrations;
+        private final Node root;
+
+        private CommandRegistry(Map<String, Registration> registrations) {
+            this.registrations = Collections.unmodifiableMap(registrations);
+
+            Map<String, Resolution> resolutions = new HashMap<>();
+            for (String label : registrations.keySet())
+                resolve(label, resolutions, new HashSet<>());
+
+            String[] labels = registrations.keySet().toArray(new String[0]);
+            Arrays.sort(labels);
+
+            this.root = new Node(labels, 0, labels.length, 0, resolutions);
+        }
+
+        private Resolution resolve(String label, Map<String, Resolution> resolutions, Set<String> visiting) {
+            Resolution resolution = resolutions.get(label);
+            if (resolution != null) return resolution;
+
+            CommandExecutor executor = registrations.get(label).getExecutor();
+            resolution = new Resolution(executor, executor, Resolution.noArguments);
+
+            if (executor instanceof AliasedCommandExecutor && visiting.add(label)) {
+                AliasedCommandExecutor alias = (AliasedCommandExecutor) executor;
+
+                // An alias of a missing command, or in a cycle, is run itself, and reports the problem.
+                String targetLabel = alias.getTargetLabel();
+                if (registrations.containsKey(targetLabel) && !visiting.contains(targetLabel)) {
+                    Resolution target = resolve(targetLabel, resolutions, visiting);
+                    resolution = new Resolution(
+                            executor,
+                            target.target,
+                            target.getArguments(alias.getTargetArguments())
+                    );
+                }
+
+                visiting.remove(label);
+            }
+
+            resolutions.put(label, resolution);
+            return resolution;
+        }
+
+        private Resolution resolve(String label) {
+            Node node = root.find(label);
+            return node == null ? null : node.resolution;
+        }
+
+        private List<String> getLabels(String prefix) {
+            Node node = root.find(prefix);
+            if (node == null) return Collections.emptyList();
+
+            List<String> labels = new ArrayList<>(node.size);
+            node.collectLabels(labels);
+            return Collections.unmodifiableList(labels);
+        }
+
+        private String completeLabel(String prefix) {
+            Node node = root.find(prefix);
+            if (node == null || node.size != 1) return null;
+
+            while (node.label == null) node = node.children[0];
+            return node.label;
+        }
+    }
+
+    private static final class Node {
+        private static final char[] noKeys = new char[0];
+        private static final Node[] noChildren = new Node[0];
+
+        private final char[] keys;
+        private final Node[] children;
+
+        /**
+         * Label ending at this node, and its resolution; null if no label ends here.
+         */
+        private final String label;
+        private final Resolution resolution;
+
+        /**
+         * Number of labels ending at this node or below it.
+         */
+        private final int size;
+
+        /**
+         * @param labels sorted labels.
+         * @param from first label sharing this node's prefix.
+         * @param to end of the labels sharing this node's prefix.
+         * @param depth length of this node's prefix.
+         * @param resolutions resolution of each label.
+         */
+        private Node(String[] labels, int from, int to, int depth, Map<String, Resolution> resolutions) {
+            this.size = to - from;
+
+            // Sorted first, a label ending here is the only one as short as the prefix.
+            if (from < to && labels[from].length() == depth) {
+                this.label = labels[from];
+                this.resolution = resolutions.get(label);
+                from++;
+            } else {
+                this.label = null;
+                this.resolution = null;
+            }
+
+            int count = 0;
+            for (int index = from; index < to; index++)
+                if (index == from || labels[index].charAt(depth) != labels[index - 1].charAt(depth)) count++;
+
+            this.keys = count == 0 ? noKeys : new char[count];
+            this.children = count == 0 ? noChildren : new Node[count];
+
+            int child = 0;
+            for (int start = from; start < to; child++) {
+                char key = labels[start].charAt(depth);
+
+                int end = start + 1;
+                while (end < to && labels[end].charAt(depth) == key) end++;
+
+                keys[child] = key;
+                children[child] = new Node(labels, start, end, depth + 1, resolutions);
+                start = end;
+            }
+        }
+
+        private Node find(String prefix) {
+            Node node = this;
+
+            for (int depth = 0; depth < prefix.length(); depth++) {
+                int index = Arrays.binarySearch(node.keys, prefix.charAt(depth));
+                if (index < 0) return null;
+                node = node.children[index];
+            }
+
+            return node;
+        }
+
+        private void collectLabels(List<String> labels) {
+            if (label != null) labels.add(label);
+            for (Node child : children) child.collectLabels(labels);
+        }
     }
 }
@@ -0,0 +1,143 @@
+package io.manebot.command;
+
+import io.manebot.virtual.UserSwitch;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fixed set of workers that drain the command queues of every {@link AsyncCommandShell}.
+ *
+ * A shell with pending commands is scheduled at most once at a time, so each user's commands still run one at a
+ * time and in order, while the number of threads no longer depends on the number of users. Before handling a
+ * shell's command, a worker changes its process to the shell's user.
+ */
+public class ShellPool {
+    private final BlockingQueue<AsyncCommandShell> ready = new LinkedBlockingQueue<>();
+    private final List<Thread> workers;
+    private final AtomicInteger activeWorkers = new AtomicInteger();
+
+    private volatile boolean running = true;
+
+    /**
+     * Creates and starts a shell pool.
+     * @param threadFactory factory providing worker threads; workers are created as the current user.
+     * @param workers number of workers.
+     * @param userSwitchSupplier supplies a worker's user switch; called once on each worker, before it handles any
+     *                           commands.
+     */
+    public ShellPool(ThreadFactory threadFactory, int workers, Supplier<UserSwitch> userSwitchSupplier) {
+        if (workers <= 0) throw new IllegalArgumentException("workers");
+
+        List<Thread> threads = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i ++)
+            threads.add(threadFactory.newThread(new Worker(userSwitchSupplier)));
+
+        this.workers = Collections.unmodifiableList(threads);
+        this.workers.forEach(Thread::start);
+    }
+
+    /**
+     * Queues a shell to have its next command handled. Shells make sure they are only queued once at a time.
+     * @param shell shell with pending commands.
+     */
+    void schedule(AsyncCommandShell shell) {
+        if (!running) throw new IllegalStateException("shell pool is shut down");
+        ready.add(shell);
+    }
+
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+    }
+
+    /**
+     * Waits for the workers to finish the commands they are handling, after {@link #shutdown()}. The calling worker,
+     * if any, isn't waited for.
+     * @param timeout time to wait.
+     * @param unit unit of the timeout.
+     * @return true if every worker finished, false if the timeout elapsed first.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+
+        for (Thread worker : workers) {
+            // A command, such as one stopping the bot, may shut the pool down from its own worker.
+            if (worker == Thread.currentThread()) continue;
+
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) return false;
+
+            TimeUnit.NANOSECONDS.timedJoin(worker, remaining);
+            if (worker.isAlive()) return false;
+        }
+
+        return true;
+    }
+
+    public int getWorkers() {
+        return workers.size();
+    }
+
+    public int getActiveWorkers() {
+        return activeWorkers.get();
+    }
+
+    /**
+     * @return number of shells waiting for a worker.
+     */
+    public int getReadyShells() {
+        return ready.size();
+    }
+
+    private class Worker implements Runnable {
+        private final Supplier<UserSwitch> userSwitchSupplier;
+
+        private Worker(Supplier<UserSwitch> userSwitchSupplier) {
+            this.userSwitchSupplier = userSwitchSupplier;
+        }
+
+        @Override
+        public void run() {
+            // Obtained while still running as the creating (privileged) user.
+            UserSwitch userSwitch = userSwitchSupplier.get();
+
+            while (running) {
+                AsyncCommandShell shell;
+
+                try {
+                    shell = ready.take();
+                } catch (InterruptedException e) {
+                    break;
+                }
+
+                activeWorkers.incrementAndGet();
+
+                try {
+                    shell.handleNext(userSwitch);
+                } catch (Throwable e) {
+                    Logger.getGlobal().log(
+                            Level.SEVERE,
+                            "Unexpected problem handling command in shell: " + shell.getUser().getName(),
+                            e
+                    );
+                } finally {
+                    activeWorkers.decrementAndGet();
+
+                    // Don't carry an interrupt aimed at one command over to the next.
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package io.manebot.command;
+
+import io.manebot.user.UserType;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Queueing settings for command shells.
+ */
+public final class ShellSettings {
+    private static final int defaultBacklog = 3;
+    private static final int defaultMaximumInFlight = 512;
+    private static final int defaultWorkers = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+
+    private final Map<UserType, Integer> backlogs;
+    private final int defaultTypeBacklog;
+    private final OverflowPolicy overflowPolicy;
+    private final int maximumInFlight;
+    private final int workers;
+
+    public ShellSettings(Map<UserType, Integer> backlogs, int defaultTypeBacklog,
+                         OverflowPolicy overflowPolicy, int maximumInFlight, int workers) {
+        if (defaultTypeBacklog <= 0) throw new IllegalArgumentException("backlog");
+        if (maximumInFlight <= 0) throw new IllegalArgumentException("maximumInFlight");
+        if (workers <= 0) throw new IllegalArgumentException("workers");
+
+        this.backlogs = Collections.unmodifiableMap(new EnumMap<>(backlogs));
+        this.defaultTypeBacklog = defaultTypeBacklog;
+        this.overflowPolicy = overflowPolicy;
+        this.maximumInFlight = maximumInFlight;
+        this.workers = workers;
+    }
+
+    /**
+     * Creates default settings: a backlog of 3 commands for every user, rejecting further commands.
+     */
+    public ShellSettings() {
+        this(Collections.emptyMap(), defaultBacklog, OverflowPolicy.REJECT, defaultMaximumInFlight, defaultWorkers);
+    }
+
+    /**
+     * Reads shell settings.
+     *
+     * Recognized properties: <code>backlog</code>, <code>backlog.&lt;user type&gt;</code> (for example,
+     * <code>backlog.system</code>), <code>overflow</code> (one of <code>reject</code>, <code>coalesce</code> or
+     * <code>drop_oldest</code>), <code>inflight</code> and <code>workers</code>.
+     *
+     * @param properties property section to read.
+     * @return ShellSettings instance.
+     */
+    public static ShellSettings fromProperties(Properties properties) {
+        Map<UserType, Integer> backlogs = new EnumMap<>(UserType.class);
+        for (UserType type : UserType.values()) {
+            String backlog = properties.getProperty("backlog." + type.name().toLowerCase());
+            if (backlog != null) backlogs.put(type, Integer.parseInt(backlog));
+        }
+
+        return new ShellSettings(
+                backlogs,
+                Integer.parseInt(properties.getProperty("backlog", Integer.toString(defaultBacklog))),
+                OverflowPolicy.valueOf(properties.getProperty("overflow", OverflowPolicy.REJECT.name()).toUpperCase()),
+                Integer.parseInt(properties.getProperty("inflight", Integer.toString(defaultMaximumInFlight))),
+                Integer.parseInt(properties.getProperty("workers", Integer.toString(defaultWorkers)))
+        );
+    }
+
+    /**
+     * Gets the number of commands a user's shell may hold pending.
+     * @param type user type.
+     * @return backlog.
+     */
+    public int getBacklog(UserType type) {
+        return backlogs.getOrDefault(type, defaultTypeBacklog);
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    /**
+     * Gets the number of commands that may be pending or executing across all shells.
+     * @return in-flight command budget.
+     */
+    public int getMaximumInFlight() {
+        return maximumInFlight;
+    }
+
+    /**
+     * Gets the number of workers handling commands for all shells.
+     * @return worker count.
+     */
+    public int getWorkers() {
+        return workers;
+    }
+
+    public enum OverflowPolicy {
+        /**
+         * Refuses the new command.
+         */
+        REJECT,
+
+        /**
+         * Merges the new command into an identical pending command from the same chat, and otherwise refuses it.
+         */
+        COALESCE,
+
+        /**
+         * Discards the oldest pending command to make room.
+         */
+        DROP_OLDEST
+    }
+}
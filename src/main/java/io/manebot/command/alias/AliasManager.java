@@ -1,9 +1,11 @@
 package io.manebot.command.alias;
 
 import io.manebot.command.CommandManager;
+import io.manebot.command.DefaultCommandManager;
 import io.manebot.command.executor.CommandExecutor;
 import io.manebot.database.Database;
 import io.manebot.database.model.CommandAlias;
+import org.hibernate.annotations.QueryHints;
 
 import java.sql.SQLException;
 import java.util.*;
@@ -23,6 +25,7 @@ public class AliasManager {
     public List<CommandAlias> getAliases() {
         return database.execute(s -> {
             return s.createQuery("SELECT x FROM " + CommandAlias.class.getName() + " x", CommandAlias.class)
+                    .setHint(QueryHints.CACHEABLE, true)
                     .getResultList();
         });
     }
@@ -45,6 +48,7 @@ public class AliasManager {
                     "SELECT x FROM " + CommandAlias.class.getName() + " x " +
                     "WHERE x.label = :label",
                     CommandAlias.class)
+                    .setHint(QueryHints.CACHEABLE, true)
                     .setParameter("label", label)
                     .setMaxResults(1)
                     .getResultStream()
@@ -54,6 +58,12 @@ public class AliasManager {
     }
 
     public void unregisterAliases() {
+        if (commandManager instanceof DefaultCommandManager) {
+            ((DefaultCommandManager) commandManager).unregisterExecutors(registeredExecutors.keySet());
+            registeredExecutors.clear();
+            return;
+        }
+
         Iterator<Map.Entry<String, CommandExecutor>> it = registeredExecutors.entrySet().iterator();
         while (it.hasNext()) {
             commandManager.unregisterExecutor(it.next().getKey());
@@ -62,20 +72,37 @@ public class AliasManager {
     }
 
     public void registerAliases() {
+        Map<String, CommandExecutor> executors = new LinkedHashMap<>();
+
         for (CommandAlias alias : getAliases()) {
-            CommandExecutor executor;
+            if (commandManager.getExecutor(alias.getLabel()) != null || executors.containsKey(alias.getLabel())) {
+                Logger.getGlobal().log(Level.WARNING, "Failed to register alias \"" + alias.getLabel() + "\": " +
+                        "command " + alias.getLabel() + " already exists.");
+                continue;
+            }
+
+            executors.put(alias.getLabel(), new AliasedCommandExecutor(commandManager, alias));
+        }
+
+        if (commandManager instanceof DefaultCommandManager) {
+            try {
+                ((DefaultCommandManager) commandManager).registerExecutors(executors);
+                registeredExecutors.putAll(executors);
+                return;
+            } catch (IllegalArgumentException ex) {
+                // A label was taken in the meantime; register the rest one by one.
+            }
+        }
 
+        for (Map.Entry<String, CommandExecutor> entry : executors.entrySet()) {
             try {
-                commandManager.registerExecutor(
-                        alias.getLabel(),
-                        executor = new AliasedCommandExecutor(commandManager, alias)
-                );
+                commandManager.registerExecutor(entry.getKey(), entry.getValue());
             } catch (Exception ex) {
-                Logger.getGlobal().log(Level.WARNING, "Failed to register alias \"" + alias.getLabel() + "\"", ex);
+                Logger.getGlobal().log(Level.WARNING, "Failed to register alias \"" + entry.getKey() + "\"", ex);
                 continue;
             }
 
-            registeredExecutors.put(alias.getLabel(), executor);
+            registeredExecutors.put(entry.getKey(), entry.getValue());
         }
     }
 
@@ -2,11 +2,13 @@ package io.manebot.command.alias;
 
 import io.manebot.command.CommandManager;
 import io.manebot.command.CommandSender;
+import io.manebot.command.CommandTokenizer;
 import io.manebot.command.exception.CommandArgumentException;
 import io.manebot.command.exception.CommandExecutionException;
 import io.manebot.command.executor.CommandExecutor;
 import io.manebot.database.model.CommandAlias;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 
@@ -14,35 +16,44 @@ public class AliasedCommandExecutor implements CommandExecutor {
     private final CommandManager commandManager;
     private final CommandAlias alias;
 
+    // Alias targets never change once registered, so they are split once.
+    private final String targetLabel;
+    private final String[] targetArguments;
+
     public AliasedCommandExecutor(CommandManager commandManager, CommandAlias alias) {
         this.commandManager = commandManager;
         this.alias = alias;
-    }
 
-    private String[] getTargetArguments() {
-        String[] path = alias.getAlias().split(" ");
-        if (path.length <= 1) return new String[0];
-        String[] args = new String[path.length - 1];
-        System.arraycopy(path, 1, args, 0, args.length);
-        return args;
+        String[] path = CommandTokenizer.tokenize(alias.getAlias());
+        this.targetLabel = path.length > 0 ? path[0].toLowerCase() : "";
+        this.targetArguments = path.length > 1 ? Arrays.copyOfRange(path, 1, path.length) : new String[0];
     }
 
     private String[] buildArguments(String[] append) {
-        String[] target = getTargetArguments();
-        if (target.length > 0) {
-            String[] appended = new String[target.length + append.length];
-            System.arraycopy(target, 0, appended, 0, target.length);
-            System.arraycopy(append, 0, appended, target.length, append.length);
+        if (targetArguments.length > 0) {
+            String[] appended = new String[targetArguments.length + append.length];
+            System.arraycopy(targetArguments, 0, appended, 0, targetArguments.length);
+            System.arraycopy(append, 0, appended, targetArguments.length, append.length);
             return appended;
         } else return append;
     }
 
-    private String getTargetLabel() {
-        return alias.getAlias().split(" ")[0].toLowerCase();
+    /**
+     * @return label of the command this alias runs.
+     */
+    public String getTargetLabel() {
+        return targetLabel;
+    }
+
+    /**
+     * @return arguments this alias passes ahead of its own.
+     */
+    public String[] getTargetArguments() {
+        return targetArguments.clone();
     }
 
     private CommandExecutor getTargetCommand() {
-        return commandManager.getExecutor(getTargetLabel());
+        return commandManager.getExecutor(targetLabel);
     }
 
     @Override
@@ -58,7 +69,7 @@ public class AliasedCommandExecutor implements CommandExecutor {
     public String getDescription() {
         CommandExecutor executor = getTargetCommand();
         if (executor != null)
-            return "Alias of " + getTargetLabel() + ": " + getTargetCommand().getDescription();
+            return "Alias of " + getTargetLabel() + ": " + executor.getDescription();
         else
             return "Alias of " + getTargetLabel();
     }
@@ -0,0 +1,100 @@
+package io.manebot.command.builtin;
+
+import io.manebot.chat.TextStyle;
+import io.manebot.command.CommandSender;
+import io.manebot.command.exception.CommandExecutionException;
+import io.manebot.command.executor.chained.AnnotatedCommandExecutor;
+import io.manebot.command.executor.chained.argument.CommandArgumentLabel;
+import io.manebot.command.executor.chained.argument.CommandArgumentPage;
+import io.manebot.event.EventMetrics;
+import io.manebot.event.LatencyHistogram;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class EventCommand extends AnnotatedCommandExecutor {
+    private static final double NANOSECONDS_PER_MILLISECOND = 1_000_000D;
+    private static final String MILLISECONDS_FORMAT = "%,.3f";
+
+    private final EventMetrics metrics;
+
+    public EventCommand(EventMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    @Command(description = "Lists event classes by total dispatch time", permission = "system.event.metrics")
+    public void list(CommandSender sender,
+                     @CommandArgumentLabel.Argument(label = "list") String list,
+                     @CommandArgumentPage.Argument() int page)
+            throws CommandExecutionException {
+        list(sender, metrics.getEventStatistics(), page);
+    }
+
+    @Command(description = "Lists event handlers by total handling time", permission = "system.event.metrics")
+    public void handlers(CommandSender sender,
+                         @CommandArgumentLabel.Argument(label = "handlers") String handlers,
+                         @CommandArgumentPage.Argument() int page)
+            throws CommandExecutionException {
+        list(sender, metrics.getHandlerStatistics(), page);
+    }
+
+    @Command(description = "Enables event metrics", permission = "system.event.metrics.change")
+    public void enable(CommandSender sender,
+                       @CommandArgumentLabel.Argument(label = "enable") String enable)
+            throws CommandExecutionException {
+        metrics.setEnabled(true);
+        sender.sendMessage("Event metrics enabled.");
+    }
+
+    @Command(description = "Disables event metrics", permission = "system.event.metrics.change")
+    public void disable(CommandSender sender,
+                        @CommandArgumentLabel.Argument(label = "disable") String disable)
+            throws CommandExecutionException {
+        metrics.setEnabled(false);
+        sender.sendMessage("Event metrics disabled.");
+    }
+
+    @Command(description = "Clears event metrics", permission = "system.event.metrics.change")
+    public void reset(CommandSender sender,
+                      @CommandArgumentLabel.Argument(label = "reset") String reset)
+            throws CommandExecutionException {
+        metrics.reset();
+        sender.sendMessage("Event metrics cleared.");
+    }
+
+    private void list(CommandSender sender, Collection<EventMetrics.Statistics> statistics, int page)
+            throws CommandExecutionException {
+        if (!metrics.isEnabled())
+            sender.sendMessage("Event metrics are disabled; use \"event enable\" to record them.");
+
+        sender.sendList(
+                EventMetrics.Statistics.class,
+                builder -> builder.direct(statistics.stream()
+                        .filter(x -> x.getCount() > 0)
+                        .sorted(Comparator.comparingLong(
+                                (EventMetrics.Statistics x) -> x.getLatency().getTotal()
+                        ).reversed())
+                        .collect(Collectors.toList()))
+                .page(page)
+                .responder((textBuilder, x) -> {
+                    LatencyHistogram latency = x.getLatency();
+                    textBuilder.append(x.getName(), EnumSet.of(TextStyle.BOLD))
+                            .append(" (" + x.getCount() + " calls, " + x.getFailures() + " failed; " +
+                                    "total " + milliseconds(latency.getTotal()) + ", " +
+                                    "p50 " + milliseconds(latency.getValueAtPercentile(50D)) + ", " +
+                                    "p99 " + milliseconds(latency.getValueAtPercentile(99D)) + ", " +
+                                    "max " + milliseconds(latency.getMaximum()) + ")");
+                })
+                .build()
+        );
+    }
+
+    private static String milliseconds(long nanoseconds) {
+        return String.format(MILLISECONDS_FORMAT, nanoseconds / NANOSECONDS_PER_MILLISECOND) + "ms";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Shows event dispatch metrics";
+    }
+}
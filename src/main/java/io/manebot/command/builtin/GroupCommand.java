@@ -16,9 +16,9 @@ import io.manebot.database.model.Group;
 import io.manebot.database.model.Platform;
 import io.manebot.database.search.*;
 import io.manebot.database.search.handler.*;
+import io.manebot.user.DefaultUserManager;
 import io.manebot.user.User;
 import io.manebot.user.UserGroup;
-import io.manebot.user.UserManager;
 
 import javax.persistence.criteria.*;
 import java.sql.SQLException;
@@ -28,10 +28,10 @@ import java.util.function.Function;
 import java.util.stream.Collectors;
 
 public class GroupCommand extends AnnotatedCommandExecutor {
-    private final UserManager userManager;
+    private final DefaultUserManager userManager;
     private final SearchHandler<Group> searchHandler;
 
-    public GroupCommand(UserManager userManager, Database database) {
+    public GroupCommand(DefaultUserManager userManager, Database database) {
         this.userManager = userManager;
 
         this.searchHandler = database.createSearchHandler(Group.class)
@@ -135,6 +135,7 @@ public class GroupCommand extends AnnotatedCommandExecutor {
             throw new CommandArgumentException("User is already a member of this group.");
 
         group.addUser(user);
+        userManager.getPermissionCache().invalidate(user);
 
         sender.sendMessage("Added " + user.getDisplayName() + " to " + group.getName() + ".");
     }
@@ -155,6 +156,7 @@ public class GroupCommand extends AnnotatedCommandExecutor {
             throw new CommandArgumentException("User is not a member of this group.");
 
         group.removeUser(user);
+        userManager.getPermissionCache().invalidate(user);
 
         sender.sendMessage("Removed " + user.getDisplayName() + " from " + group.getName() + ".");
     }
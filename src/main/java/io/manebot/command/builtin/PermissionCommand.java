@@ -15,19 +15,19 @@ import io.manebot.entity.Entity;
 import io.manebot.security.Grant;
 import io.manebot.security.GrantedPermission;
 import io.manebot.security.Permission;
+import io.manebot.user.DefaultUserManager;
 import io.manebot.user.User;
 import io.manebot.user.UserGroup;
-import io.manebot.user.UserManager;
 
 import java.util.ArrayList;
 import java.util.EnumSet;
 import java.util.function.Function;
 
 public class PermissionCommand extends AnnotatedCommandExecutor {
-    private final UserManager userManager;
+    private final DefaultUserManager userManager;
     private final ConversationProvider conversationProvider;
 
-    public PermissionCommand(UserManager userManager, ConversationProvider conversationProvider) {
+    public PermissionCommand(DefaultUserManager userManager, ConversationProvider conversationProvider) {
         this.userManager = userManager;
         this.conversationProvider = conversationProvider;
     }
@@ -85,6 +85,7 @@ public class PermissionCommand extends AnnotatedCommandExecutor {
         node = node.toLowerCase();
         Grant g = grant.equalsIgnoreCase(Grant.ALLOW.name()) ? Grant.ALLOW : Grant.DENY;
         entity.setPermission(node, g);
+        userManager.getPermissionCache().invalidate(entity);
         sender.sendMessage("Granted \"" + node + "\" to entity (" + g.name().toLowerCase() + ")");
     }
 
@@ -102,6 +103,7 @@ public class PermissionCommand extends AnnotatedCommandExecutor {
             throw new CommandArgumentException("Permission not granted to entity.");
         node = node.toLowerCase();
         entity.removePermission(node);
+        userManager.getPermissionCache().invalidate(entity);
         sender.sendMessage("Removed \"" + node + "\" from entity.");
     }
 
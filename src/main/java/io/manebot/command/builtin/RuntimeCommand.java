@@ -2,10 +2,29 @@ package io.manebot.command.builtin;
 
 import io.manebot.command.CommandSender;
 import io.manebot.command.executor.chained.AnnotatedCommandExecutor;
+import io.manebot.database.EntityCache;
+import io.manebot.database.HibernateManager;
+import io.manebot.database.SharedConnectionProvider;
+import io.manebot.event.DefaultEventManager;
+import io.manebot.event.EventDispatchPool;
+import io.manebot.user.DefaultUserManager;
+import io.manebot.user.UserAssociationCache;
 
 public class RuntimeCommand extends AnnotatedCommandExecutor {
     private static final long mb = 1024*1024;
 
+    private final DefaultEventManager eventManager;
+    private final DefaultUserManager userManager;
+    private final HibernateManager databaseManager;
+
+    public RuntimeCommand(DefaultEventManager eventManager,
+                          DefaultUserManager userManager,
+                          HibernateManager databaseManager) {
+        this.eventManager = eventManager;
+        this.userManager = userManager;
+        this.databaseManager = databaseManager;
+    }
+
     @Command(description = "Gets runtime information", permission = "system.runtime")
     public void info(CommandSender sender) {
         Runtime runtime = Runtime.getRuntime();
@@ -26,6 +45,41 @@ public class RuntimeCommand extends AnnotatedCommandExecutor {
         double percent = ((double)(totalMemory - freeMemory) / (double)runtime.maxMemory()) * 100D;
         sender.sendMessage(" Memory usage: " + (totalMemory - freeMemory) / mb +
                 " MB (" + String.format("%.2f", percent) + "% of " + (runtime.maxMemory() / mb) + " MB)");
+
+        EventDispatchPool pool = eventManager.getDispatchPool();
+        sender.sendMessage(" Event workers: " + pool.getActiveWorkers() + " active, " +
+                pool.getWorkers() + "/" + pool.getMaximumWorkers() + " started");
+        sender.sendMessage(" Event queue: " + pool.getQueueDepth() + "/" + pool.getQueueCapacity() +
+                " (" + pool.getOverflowPolicy().name().toLowerCase() + ")");
+        sender.sendMessage(" Event overflow: " + pool.getRejected() + " rejected, " +
+                pool.getDropped() + " dropped, " + pool.getCallerRuns() + " run by caller");
+
+        UserAssociationCache associationCache = userManager.getUserAssociationCache();
+        sender.sendMessage(" User associations: " + associationCache.getSize() + "/" +
+                associationCache.getMaximumSize() + " cached, " + associationCache.getHits() + " hits, " +
+                associationCache.getMisses() + " misses, " + associationCache.getEvictions() + " evictions");
+
+        long entities = 0, hits = 0, misses = 0, evictions = 0;
+        for (EntityCache entityCache : databaseManager.getEntityCaches().values()) {
+            entities += entityCache.getSize();
+            hits += entityCache.getHits();
+            misses += entityCache.getMisses();
+            evictions += entityCache.getEvictions();
+        }
+        sender.sendMessage(" Entities: " + entities + " cached, " + hits + " hits, " +
+                misses + " misses, " + evictions + " evictions");
+
+        SharedConnectionProvider sharedConnections = databaseManager.getSharedConnections();
+        if (sharedConnections != null) {
+            for (SharedConnectionProvider.DatabaseConnections connections :
+                    sharedConnections.getDatabaseConnections())
+                sender.sendMessage(" Connections (" + connections.getName() + "): " +
+                        connections.getInUse() + "/" +
+                        (connections.getMaximumSize() > 0 ? connections.getMaximumSize() : "-") + " in use, " +
+                        connections.getAcquisitions() + " acquired, " +
+                        connections.getWaitTime().toMillis() + "ms waited (" +
+                        connections.getMaximumWaitTime().toMillis() + "ms max)");
+        }
     }
 
     @Override
@@ -0,0 +1,63 @@
+package io.manebot.command.builtin;
+
+import io.manebot.chat.TextStyle;
+import io.manebot.command.AsyncCommandShell;
+import io.manebot.command.CommandSender;
+import io.manebot.command.exception.CommandExecutionException;
+import io.manebot.command.executor.chained.AnnotatedCommandExecutor;
+import io.manebot.command.executor.chained.argument.CommandArgumentLabel;
+import io.manebot.command.executor.chained.argument.CommandArgumentPage;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+public class ShellCommand extends AnnotatedCommandExecutor {
+    private static final double NANOSECONDS_PER_MILLISECOND = 1_000_000D;
+    private static final String MILLISECONDS_FORMAT = "%,.1f";
+
+    private final AsyncCommandShell.ShellFactory shellFactory;
+
+    public ShellCommand(AsyncCommandShell.ShellFactory shellFactory) {
+        this.shellFactory = shellFactory;
+    }
+
+    @Command(description = "Lists running command shells", permission = "system.shell.list")
+    public void list(CommandSender sender,
+                     @CommandArgumentLabel.Argument(label = "list") String list,
+                     @CommandArgumentPage.Argument() int page)
+            throws CommandExecutionException {
+        sender.sendMessage("Workers: " + shellFactory.getPool().getActiveWorkers() + "/" +
+                shellFactory.getPool().getWorkers() + " active, " +
+                shellFactory.getPool().getReadyShells() + " shells waiting");
+        sender.sendMessage("Commands in flight: " + shellFactory.getInFlight() + "/" +
+                shellFactory.getSettings().getMaximumInFlight() + " (" +
+                shellFactory.getSettings().getOverflowPolicy().name().toLowerCase() + " on overflow)");
+
+        sender.sendList(
+                AsyncCommandShell.class,
+                builder -> builder.direct(shellFactory.getShells().stream()
+                        .sorted(Comparator.comparing(shell -> shell.getUser().getName()))
+                        .collect(Collectors.toList()))
+                .page(page)
+                .responder((textBuilder, shell) ->
+                        textBuilder.append(shell.getUser().getName(), EnumSet.of(TextStyle.BOLD))
+                                .append(" (" + shell.getQueueDepth() + "/" + shell.getBacklog() + " queued, " +
+                                        shell.getExecuted() + " executed, " +
+                                        "wait " + milliseconds(shell.getAverageWaitNanos()) + " avg/" +
+                                        milliseconds(shell.getMaximumWaitNanos()) + " max, " +
+                                        shell.getRejected() + " rejected, " +
+                                        shell.getCoalesced() + " coalesced, " +
+                                        shell.getDropped() + " dropped)"))
+                .build()
+        );
+    }
+
+    private static String milliseconds(long nanoseconds) {
+        return String.format(MILLISECONDS_FORMAT, nanoseconds / NANOSECONDS_PER_MILLISECOND) + "ms";
+    }
+
+    @Override
+    public String getDescription() {
+        return "Shows command shell queues";
+    }
+}
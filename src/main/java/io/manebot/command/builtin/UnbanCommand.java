@@ -5,15 +5,18 @@ import io.manebot.command.exception.CommandArgumentException;
 import io.manebot.command.exception.CommandExecutionException;
 import io.manebot.command.executor.chained.AnnotatedCommandExecutor;
 import io.manebot.command.executor.chained.argument.CommandArgumentString;
+import io.manebot.user.BanIndex;
 import io.manebot.user.User;
 import io.manebot.user.UserBan;
 import io.manebot.user.UserManager;
 
 public class UnbanCommand extends AnnotatedCommandExecutor {
     private final UserManager userManager;
+    private final BanIndex banIndex;
 
-    public UnbanCommand(UserManager userManager) {
+    public UnbanCommand(UserManager userManager, BanIndex banIndex) {
         this.userManager = userManager;
+        this.banIndex = banIndex;
     }
 
     @Command(description = "unbans a user", permission = "system.user.ban")
@@ -23,8 +26,8 @@ public class UnbanCommand extends AnnotatedCommandExecutor {
         User user = userManager.getUserByDisplayName(username);
         if (user == null) throw new CommandArgumentException("User not found");
 
-        UserBan ban = user.getBan();
-        if (ban == null) throw new CommandArgumentException("User is not banned");
+        UserBan ban = banIndex.getBan(user);
+        if (ban == null || ban.isPardoned()) throw new CommandArgumentException("User is not banned");
 
         ban.pardon();
 
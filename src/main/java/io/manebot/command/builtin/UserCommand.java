@@ -32,12 +32,12 @@ import java.util.stream.Collectors;
 
 public class UserCommand extends AnnotatedCommandExecutor {
     private final PlatformManager platformManager;
-    private final UserManager userManager;
+    private final DefaultUserManager userManager;
     private final Database database;
 
     private final SearchHandler<io.manebot.database.model.User> searchHandler;
 
-    public UserCommand(PlatformManager platformManager, UserManager userManager, Database database) {
+    public UserCommand(PlatformManager platformManager, DefaultUserManager userManager, Database database) {
         this.platformManager = platformManager;
         this.userManager = userManager;
         this.database = database;
@@ -181,7 +181,7 @@ public class UserCommand extends AnnotatedCommandExecutor {
         sender.sendDetails(builder -> {
             builder.name("User").key(exposedUsername);
 
-            Date lastSeen = user.getLastSeenDate();
+            Date lastSeen = userManager.getLastSeenTracker().getLastSeenDate(user);
             if (lastSeen != null)
                 builder.item("Last seen", lastSeen.toString());
             else
@@ -239,7 +239,7 @@ public class UserCommand extends AnnotatedCommandExecutor {
         if (user.getUserAssociation(platform, userId) != null)
             throw new CommandArgumentException("This association already exists.");
 
-        UserAssociation association = user.createAssociation(platform, userId);
+        UserAssociation association = userManager.createAssociation(user, platform, userId);
 
         sender.sendMessage("Created association: " +
                 association.getPlatform().getId() + " <-> " + association.getPlatformId());
@@ -256,13 +256,13 @@ public class UserCommand extends AnnotatedCommandExecutor {
         if (platform == null)
             throw new CommandArgumentException("Platform not found.");
 
-        UserAssociation association = platform.getUserAssocation(userId);
+        UserAssociation association = userManager.getUserAssociation(platform, userId);
         if (association == null)
             throw new CommandArgumentException("This association doesn't exist.");
         else if (association == sender.getPlatformUser().getAssociation())
             throw new CommandArgumentException("Cannot remove own association.");
 
-        association.remove();
+        userManager.removeAssociation(association);
 
         sender.sendMessage("Removed association: " +
                 association.getPlatform().getId() + " <-> " + association.getPlatformId());
@@ -12,6 +12,11 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
 public class DefaultConversationProvider implements ConversationProvider {
@@ -22,6 +27,7 @@ public class DefaultConversationProvider implements ConversationProvider {
             io.manebot.database.model.Platform.class;
 
     private final DefaultBot bot;
+    private final ConcurrentMap<Key, CachedConversation> conversations = new ConcurrentHashMap<>();
 
     public DefaultConversationProvider(DefaultBot bot) {
         this.bot = bot;
@@ -35,6 +41,42 @@ public class DefaultConversationProvider implements ConversationProvider {
         if (chat == null) throw new NullPointerException("chat");
         if (!chat.isConnected()) throw new IllegalStateException("Chat is not connected");
 
+        Key key = new Key(platform.getId(), chat.getId());
+
+        CachedConversation cached = conversations.get(key);
+        if (cached != null && cached.chat.isConnected()) return cached.join();
+
+        if (cached != null) conversations.remove(key, cached);
+
+        // Only one caller resolves a given chat; others wait for its result.
+        CachedConversation created = new CachedConversation(chat);
+        cached = conversations.putIfAbsent(key, created);
+        if (cached != null) return cached.join();
+
+        evictDisconnected();
+
+        try {
+            created.future.complete(findOrCreateConversation(platform, chat));
+        } catch (Throwable e) {
+            conversations.remove(key, created);
+            created.future.completeExceptionally(e);
+        }
+
+        return created.join();
+    }
+
+    /**
+     * Forgets conversations whose chats have disconnected.
+     */
+    private void evictDisconnected() {
+        conversations.entrySet().removeIf(entry ->
+                entry.getValue().future.isDone() && !entry.getValue().chat.isConnected());
+    }
+
+    private io.manebot.database.model.Conversation findOrCreateConversation(
+            io.manebot.database.model.Platform platform,
+            Chat chat
+    ) {
         io.manebot.database.model.Conversation conversation = bot.getSystemDatabase().execute(s -> {
             return s.createQuery(
                         "select c from " + conversationClass.getName() + " c " +
@@ -136,4 +178,48 @@ public class DefaultConversationProvider implements ConversationProvider {
             ).getResultList());
         }));
     }
+
+    /**
+     * A chat's conversation, or the pending resolution of it.
+     */
+    private static final class CachedConversation {
+        private final Chat chat;
+        private final CompletableFuture<io.manebot.database.model.Conversation> future = new CompletableFuture<>();
+
+        private CachedConversation(Chat chat) {
+            this.chat = chat;
+        }
+
+        private io.manebot.database.model.Conversation join() {
+            try {
+                return future.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                throw e;
+            }
+        }
+    }
+
+    private static final class Key {
+        private final String platformId;
+        private final String chatId;
+
+        private Key(String platformId, String chatId) {
+            this.platformId = platformId;
+            this.chatId = chatId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return platformId.equals(key.platformId) && chatId.equals(key.chatId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(platformId, chatId);
+        }
+    }
 }
@@ -0,0 +1,22 @@
+package io.manebot.database;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Database whose session factory is built in the background, after those of the databases it depends on.
+ *
+ * The database can be used right away: opening a session waits for the session factory to be built, and fails if it
+ * couldn't be.
+ */
+public interface AsyncDatabase extends Database {
+    /**
+     * @return future completing with this database once it is built, or exceptionally if it couldn't be built.
+     */
+    CompletableFuture<AsyncDatabase> getBuildFuture();
+
+    /**
+     * @return time taken to build this database's session factory, or null if it hasn't been built.
+     */
+    Duration getBuildTime();
+}
@@ -0,0 +1,41 @@
+package io.manebot.database;
+
+import io.manebot.database.cache.RegionSettings;
+import io.manebot.database.cache.RegionStorage;
+
+import java.util.Map;
+
+/**
+ * Database whose entities may be kept in the second-level cache.
+ *
+ * Databases defined by {@link HibernateManager} are cached databases, and their model constructors are
+ * {@link CachingModelConstructor}s, through which entities opt in to the cache.
+ */
+public interface CachedDatabase extends Database {
+    /**
+     * @return cache regions of this database's cached entities, by region name.
+     */
+    Map<String, RegionStorage> getCacheRegions();
+
+    /**
+     * Evicts this database's cached entities, and all cached query results.
+     */
+    void evictCache();
+
+    interface CachingModelConstructor extends Database.ModelConstructor {
+        /**
+         * Caches a registered entity, with the default region settings.
+         * @param entityClass entity class, registered by this constructor.
+         * @return model constructor.
+         */
+        CachingModelConstructor cacheEntity(Class<?> entityClass);
+
+        /**
+         * Caches a registered entity. Region settings in the database properties take precedence.
+         * @param entityClass entity class, registered by this constructor.
+         * @param settings settings of the entity's region.
+         * @return model constructor.
+         */
+        CachingModelConstructor cacheEntity(Class<?> entityClass, RegionSettings settings);
+    }
+}
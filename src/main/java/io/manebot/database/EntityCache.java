@@ -0,0 +1,50 @@
+package io.manebot.database;
+
+import java.io.Serializable;
+
+/**
+ * Identity cache of the loaded instances of one entity class, shared by every session of the database manager.
+ *
+ * Sessions that load a row already in the cache are handed the cached instance, so each row has at most one
+ * instance in memory while it is cached.
+ */
+public interface EntityCache {
+    /**
+     * Gets a cached instance.
+     * @param id entity identifier.
+     * @return instance, or null if none is cached.
+     */
+    Object get(Serializable id);
+
+    /**
+     * Caches an instance, replacing any instance cached for the same identifier.
+     * @param id entity identifier.
+     * @param instance instance.
+     */
+    void put(Serializable id, Object instance);
+
+    /**
+     * Forgets an instance, so the next session to load its row loads a new instance.
+     * @param id entity identifier.
+     */
+    void invalidate(Serializable id);
+
+    /**
+     * Forgets every instance.
+     */
+    void clear();
+
+    long getHits();
+
+    long getMisses();
+
+    /**
+     * @return number of instances evicted to make room for others.
+     */
+    long getEvictions();
+
+    /**
+     * @return number of instances held strongly.
+     */
+    long getSize();
+}
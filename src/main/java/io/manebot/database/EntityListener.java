@@ -0,0 +1,24 @@
+package io.manebot.database;
+
+/**
+ * Listens for committed changes to entities of a database managed by {@link HibernateManager}.
+ *
+ * Listeners see every change made through a session, including changes made by model classes and plugins, but not
+ * bulk updates and deletes run as queries.
+ * @param <T> entity type.
+ */
+@FunctionalInterface
+public interface EntityListener<T> {
+    /**
+     * Called after a transaction that changed an entity commits, on the thread that committed it.
+     * @param entity changed entity.
+     * @param change kind of change.
+     */
+    void onCommitted(T entity, Change change);
+
+    enum Change {
+        SAVED,
+        UPDATED,
+        DELETED
+    }
+}
@@ -2,10 +2,14 @@ package io.manebot.database;
 
 import io.manebot.Bot;
 import io.manebot.DefaultBot;
+import io.manebot.database.cache.CacheRegions;
+import io.manebot.database.cache.RegionSettings;
+import io.manebot.database.cache.RegionStorage;
+import io.manebot.database.model.SchemaFingerprint;
 import io.manebot.database.search.DefaultSearchHandler;
 import io.manebot.database.search.SearchHandler;
-import com.google.common.collect.MapMaker;
 import org.hibernate.*;
+import org.hibernate.boot.CacheRegionDefinition;
 import org.hibernate.boot.Metadata;
 import org.hibernate.boot.MetadataBuilder;
 import org.hibernate.boot.MetadataSources;
@@ -13,8 +17,10 @@ import org.hibernate.boot.model.naming.*;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
 import org.hibernate.boot.spi.MetadataImplementor;
+import org.hibernate.cache.spi.access.AccessType;
 import org.hibernate.cfg.Environment;
 import org.hibernate.engine.jdbc.env.spi.JdbcEnvironment;
+import org.hibernate.resource.transaction.spi.TransactionStatus;
 import org.hibernate.tool.hbm2ddl.SchemaUpdate;
 import org.hibernate.tool.schema.TargetType;
 import org.hibernate.type.Type;
@@ -23,11 +29,14 @@ import javax.persistence.*;
 import java.io.Serializable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ExecutionException;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import java.util.stream.Collectors;
 
 public class HibernateManager implements DatabaseManager {
@@ -35,11 +44,37 @@ public class HibernateManager implements DatabaseManager {
 
     private final DefaultBot bot;
     private final Properties properties;
+    private final Function<Class<?>, EntityCache> entityCacheFactory;
+    private final CacheRegions cacheRegions;
 
+    private final SchemaFingerprints schemaFingerprints = new SchemaFingerprints();
+
+    /**
+     * Pool shared by all databases, or null if each database's session factory has its own.
+     */
+    private final SharedConnectionProvider sharedConnections;
+    private final boolean forceSchemaUpdate;
+
+    /**
+     * Whether entities that opt in are kept in the second-level cache, and whether query results are, too.
+     */
+    private final boolean secondLevelCache;
+    private final boolean queryCache;
+
+    /**
+     * Builds session factories. Core threads time out, since databases are mostly defined at startup.
+     */
+    private final ThreadPoolExecutor buildExecutor;
+
+    /**
+     * Guards entities. Mappings are looked up by name without it, from build threads and sessions, while databases
+     * are still being defined.
+     */
     private final Object entityLock = new Object();
-    private final Map<String, EntityMapping> entityByName = new LinkedHashMap<>();
+    private final Map<String, EntityMapping> entityByName = new ConcurrentHashMap<>();
     private final Set<EntityMapping> entities = new LinkedHashSet<>();
     private final Map<String, io.manebot.database.Database> databases = new LinkedHashMap<>();
+    private final List<EntityListenerRegistration<?>> entityListeners = new CopyOnWriteArrayList<>();
 
     /**
      * This naming strategy allows tables to be implicitly named via a globally-acceptable naming format
@@ -72,38 +107,29 @@ public class HibernateManager implements DatabaseManager {
     };
 
     /**
-     * Interceptor provides global (cross-SessionFactory) caching mechanism for the system
+     * @param bot bot instance.
+     * @param properties Hibernate properties, cache settings read by
+     *                   {@link TieredEntityCache#fromProperties(Class, Properties)} and {@link CacheRegions},
+     *                   <code>cache.enabled</code>, false to keep no entities in the second-level cache,
+     *                   <code>cache.query.enabled</code>, to cache query results of databases with cached entities,
+     *                   <code>schema.update.force</code>, to update schemas even if their mapping is unchanged, and
+     *                   <code>connection.shared</code>, to draw connections for all databases from one pool; see
+     *                   {@link SharedConnectionProvider}.
      */
-    private final Interceptor interceptor = new EmptyInterceptor() {
-        @Override
-        public boolean onLoad(Object entity, Serializable key, Object[] values, String[] properties, Type[] types)
-                throws CallbackException {
-            Class<?> clazz = entity.getClass();
-            EntityMapping mapping = entityByName.get(clazz.getName());
-            if (mapping == null) return false;
-
-            mapping.putInstance(key, entity);
-            return true;
-        }
-
-        @Override
-        public Object getEntity(String entityName, Serializable id) {
-            EntityMapping mapping = entityByName.get(entityName);
-            if (mapping == null) return null;
-
-            return entityByName.get(entityName).getInstance(id);
-        }
-
-        @Override
-        public Object instantiate(String entityName, EntityMode entityMode, Serializable id) {
-            EntityMapping mapping = entityByName.get(entityName);
-            if (mapping == null) return null;
-            return mapping.newInstance(id);
-        }
-    };
-
     public HibernateManager(DefaultBot bot, Properties properties) {
+        this(bot, properties, entityClass -> TieredEntityCache.fromProperties(entityClass, properties));
+    }
+
+    /**
+     * @param bot bot instance.
+     * @param properties Hibernate properties.
+     * @param entityCacheFactory creates the instance cache of each entity class.
+     */
+    public HibernateManager(DefaultBot bot,
+                            Properties properties,
+                            Function<Class<?>, EntityCache> entityCacheFactory) {
         this.bot = bot;
+        this.entityCacheFactory = entityCacheFactory;
         this.properties = new Properties();
 
         for (String property : properties.stringPropertyNames())
@@ -111,19 +137,129 @@ public class HibernateManager implements DatabaseManager {
 
         this.properties.setProperty("hibernate.enable_lazy_load_no_trans", "true");
         this.properties.setProperty("hibernate.globally_quoted_identifiers", "true");
+
+        this.cacheRegions = new CacheRegions(this.properties);
+        this.forceSchemaUpdate = Boolean.parseBoolean(this.properties.getProperty("schema.update.force", "false"));
+        this.secondLevelCache = Boolean.parseBoolean(this.properties.getProperty("cache.enabled", "true"));
+        this.queryCache = Boolean.parseBoolean(this.properties.getProperty("cache.query.enabled", "false"));
+        this.sharedConnections = Boolean.parseBoolean(this.properties.getProperty("connection.shared", "false"))
+                ? new SharedConnectionProvider(this.properties)
+                : null;
+
+        int buildThreads = Integer.parseInt(this.properties.getProperty(
+                "build.threads",
+                Integer.toString(Runtime.getRuntime().availableProcessors())
+        ));
+        AtomicInteger buildThreadCounter = new AtomicInteger();
+        this.buildExecutor = new ThreadPoolExecutor(
+                buildThreads, buildThreads,
+                30L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "database-build-" + buildThreadCounter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+        this.buildExecutor.allowCoreThreadTimeOut(true);
     }
 
     public Collection<Class<?>> getEntities() {
-        return Collections.unmodifiableCollection(
-                entities.stream()
-                .map(EntityMapping::getEntityClass)
-                .collect(Collectors.toList())
-        );
+        synchronized (entityLock) {
+            return Collections.unmodifiableCollection(
+                    entities.stream()
+                    .map(EntityMapping::getEntityClass)
+                    .collect(Collectors.toList())
+            );
+        }
     }
 
-    private EntityMapping registerEntityClass(Database database, Class<?> clazz) throws ReflectiveOperationException {
+    /**
+     * @return instance cache of each registered entity class.
+     */
+    public Map<Class<?>, EntityCache> getEntityCaches() {
         synchronized (entityLock) {
-            EntityMapping mapping = new EntityMapping(clazz, database, buildInstantiator(clazz, database));
+            Map<Class<?>, EntityCache> caches = new LinkedHashMap<>();
+            for (EntityMapping mapping : entities) caches.put(mapping.getEntityClass(), mapping.getCache());
+            return Collections.unmodifiableMap(caches);
+        }
+    }
+
+    /**
+     * @return connection pool shared by all databases, or null if each database has its own.
+     */
+    public SharedConnectionProvider getSharedConnections() {
+        return sharedConnections;
+    }
+
+    /**
+     * @return second-level cache regions of all databases.
+     */
+    public CacheRegions getCacheRegions() {
+        return cacheRegions;
+    }
+
+    /**
+     * Registers a listener for committed changes to entities of a class, in any database.
+     * @param entityClass entity class; changes to subclasses are included.
+     * @param listener listener.
+     * @param <T> entity type.
+     */
+    public <T> void registerEntityListener(Class<T> entityClass, EntityListener<? super T> listener) {
+        if (entityClass == null) throw new IllegalArgumentException("entityClass");
+        if (listener == null) throw new IllegalArgumentException("listener");
+
+        entityListeners.add(new EntityListenerRegistration<>(entityClass, listener));
+    }
+
+    public void unregisterEntityListener(EntityListener<?> listener) {
+        entityListeners.removeIf(registration -> registration.listener == listener);
+    }
+
+    private boolean hasEntityListeners(Object entity) {
+        for (EntityListenerRegistration<?> registration : entityListeners)
+            if (registration.entityClass.isInstance(entity)) return true;
+
+        return false;
+    }
+
+    private void fireEntityListeners(Object entity, EntityListener.Change change) {
+        for (EntityListenerRegistration<?> registration : entityListeners) {
+            try {
+                registration.fire(entity, change);
+            } catch (RuntimeException e) {
+                Logger.getGlobal().log(Level.WARNING, "Problem notifying entity listener", e);
+            }
+        }
+    }
+
+    /**
+     * Evicts an entity from its instance cache and the second-level cache, so that it is read again from its table.
+     * Bulk updates run as queries bypass both caches, and should evict the entities they change.
+     * @param entityClass registered entity class.
+     * @param id entity identifier.
+     */
+    public void evictEntity(Class<?> entityClass, Serializable id) {
+        EntityMapping mapping = entityByName.get(entityClass.getName());
+        if (mapping == null) throw new IllegalArgumentException("entityClass");
+
+        mapping.invalidateInstance(id);
+        if (mapping.isCached())
+            mapping.getDatabase().getSessionFactory().getCache().evictEntityData(entityClass, id);
+    }
+
+    private EntityMapping registerEntityClass(Database database, Class<?> clazz, RegionSettings cacheSettings)
+            throws ReflectiveOperationException {
+        synchronized (entityLock) {
+            EntityMapping mapping = new EntityMapping(
+                    clazz,
+                    database,
+                    buildInstantiator(clazz, database),
+                    entityCacheFactory.apply(clazz),
+                    secondLevelCache && cacheSettings != null
+            );
+
+            if (mapping.isCached()) cacheRegions.setDefaultSettings(clazz.getName(), cacheSettings);
 
             entities.add(mapping);
             entityByName.put(clazz.getName(), mapping);
@@ -144,6 +280,20 @@ public class HibernateManager implements DatabaseManager {
         metadataBuilder.applyPhysicalNamingStrategy(physicalNamingStrategy);
         metadataBuilder.applyImplicitNamingStrategy(implicitNamingStrategy);
 
+        // Every session factory mapping a cached entity caches it, so writes through any of them evict it.
+        for (Class<?> c : classes) {
+            EntityMapping mapping = entityByName.get(c.getName());
+            if (mapping == null || !mapping.isCached()) continue;
+
+            metadataBuilder.applyCacheRegionDefinition(new CacheRegionDefinition(
+                    CacheRegionDefinition.CacheRegionType.ENTITY,
+                    c.getName(),
+                    AccessType.READ_WRITE.getExternalName(),
+                    c.getName(),
+                    true
+            ));
+        }
+
         MetadataImplementor metadataImplementor = (MetadataImplementor) metadataBuilder.build();
         metadataImplementor.validate();
 
@@ -154,25 +304,82 @@ public class HibernateManager implements DatabaseManager {
      * Builds a new SessionFactory given the specific graph objects.
      * @return SessionFactory instance.
      */
-    private SessionFactory buildFactory(Collection<Class<?>> modelClasses,
+    private SessionFactory buildFactory(String name,
+                                        Collection<Class<?>> modelClasses,
                                         Collection<AttributeConverter<?,?>> attributeConverters,
                                         Collection<Class<?>> updateClasses) {
-        StandardServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder()
+        // Only databases mapping a cached entity, including their dependencies', use the second-level cache.
+        boolean cached = false;
+        for (Class<?> c : modelClasses) {
+            EntityMapping mapping = entityByName.get(c.getName());
+            if (mapping != null && mapping.isCached()) {
+                cached = true;
+                break;
+            }
+        }
+
+        StandardServiceRegistryBuilder serviceRegistryBuilder = new StandardServiceRegistryBuilder()
                 .applySettings(properties)
-                .applySetting(Environment.HBM2DDL_AUTO, "update")
-                .build();
+                .applySetting(Environment.HBM2DDL_AUTO, "none") // updated below, only if the mapping changed
+                .applySetting(Environment.USE_SECOND_LEVEL_CACHE, Boolean.toString(cached))
+                .applySetting(Environment.USE_QUERY_CACHE, Boolean.toString(cached && queryCache));
+
+        if (cached)
+            serviceRegistryBuilder.applySetting(Environment.CACHE_REGION_FACTORY, cacheRegions.createRegionFactory());
 
-        Metadata metadata = buildMetadata(serviceRegistry, attributeConverters, modelClasses);
+        if (sharedConnections != null)
+            serviceRegistryBuilder.applySetting(
+                    Environment.CONNECTION_PROVIDER,
+                    sharedConnections.getDatabaseConnections(name)
+            );
+
+        StandardServiceRegistry serviceRegistry = serviceRegistryBuilder.build();
+
+        // Every database maps the fingerprint table, so the schema update creates it through the dialect.
+        Collection<Class<?>> mappedClasses = new ArrayList<>(modelClasses);
+        mappedClasses.add(SchemaFingerprint.class);
+
+        Metadata metadata = buildMetadata(serviceRegistry, attributeConverters, mappedClasses);
+        SessionFactory sessionFactory =
+                metadata.getSessionFactoryBuilder().applyStatelessInterceptor(SessionInterceptor::new).build();
 
         if (updateClasses.size() >= 0) {
-            SchemaUpdate schemaUpdate = new SchemaUpdate();
-            schemaUpdate.setHaltOnError(true);
-            schemaUpdate.setDelimiter(";");
-            schemaUpdate.setFormat(true);
-            schemaUpdate.execute(EnumSet.of(TargetType.DATABASE), metadata, serviceRegistry);
+            String fingerprint = schemaFingerprints.compute(metadata, attributeConverters);
+            String storedFingerprint;
+
+            try {
+                storedFingerprint = forceSchemaUpdate ? null : schemaFingerprints.read(sessionFactory, name);
+            } catch (PersistenceException e) {
+                // The fingerprint table doesn't exist until the first schema update creates it.
+                Logger.getGlobal().log(Level.FINE, "Problem reading schema fingerprint of database " + name, e);
+                storedFingerprint = null;
+            }
+
+            if (fingerprint.equals(storedFingerprint)) {
+                Logger.getGlobal().fine("Schema of database " + name + " is unchanged; not updating it.");
+            } else {
+                SchemaUpdate schemaUpdate = new SchemaUpdate();
+                schemaUpdate.setHaltOnError(true);
+                schemaUpdate.setDelimiter(";");
+                schemaUpdate.setFormat(true);
+
+                try {
+                    schemaUpdate.execute(EnumSet.of(TargetType.DATABASE), metadata, serviceRegistry);
+                } catch (RuntimeException e) {
+                    sessionFactory.close();
+                    throw e;
+                }
+
+                try {
+                    schemaFingerprints.write(sessionFactory, name, fingerprint);
+                } catch (PersistenceException e) {
+                    Logger.getGlobal().log(Level.WARNING,
+                            "Problem writing schema fingerprint of database " + name, e);
+                }
+            }
         }
 
-        return metadata.getSessionFactoryBuilder().applyInterceptor(interceptor).build();
+        return sessionFactory;
     }
 
     @Override
@@ -182,21 +389,89 @@ public class HibernateManager implements DatabaseManager {
 
     @Override
     public Collection<io.manebot.database.Database> getDatabases() {
-        return Collections.unmodifiableCollection(databases.values());
+        synchronized (databases) {
+            return Collections.unmodifiableCollection(new ArrayList<>(databases.values()));
+        }
     }
 
     @Override
     public io.manebot.database.Database getDatabase(String name) {
-        return databases.get(name);
+        synchronized (databases) {
+            return databases.get(name);
+        }
     }
 
     @Override
     public io.manebot.database.Database defineDatabase(String name, Consumer<Database.ModelConstructor> function) {
-        return databases.computeIfAbsent(name, key -> {
-            ModelConstructor constructor = new ModelConstructor(key);
+        Database database = (Database) defineDatabaseAsync(name, function);
+        database.getSessionFactory(); // wait for it to be built
+        return database;
+    }
+
+    /**
+     * Defines a database, building its session factory in the background once the databases it depends on are
+     * built. Databases that don't depend on each other are built in parallel.
+     * @param name database name.
+     * @param function function defining the database's model.
+     * @return database, which may still be being built.
+     */
+    public AsyncDatabase defineDatabaseAsync(String name, Consumer<Database.ModelConstructor> function) {
+        Database database;
+
+        synchronized (databases) {
+            io.manebot.database.Database existing = databases.get(name);
+            if (existing != null) return (AsyncDatabase) existing;
+
+            ModelConstructor constructor = new ModelConstructor(name);
             function.accept(constructor);
-            return constructor.build();
+            database = constructor.build();
+            databases.put(name, database);
+        }
+
+        // A database that couldn't be built is forgotten, so that it can be defined again.
+        database.getBuildFuture().whenComplete((built, e) -> {
+            if (e != null) forgetDatabase(database);
         });
+
+        return database;
+    }
+
+    private void forgetDatabase(Database database) {
+        synchronized (databases) {
+            databases.remove(database.getName(), database);
+        }
+
+        synchronized (entityLock) {
+            for (EntityMapping mapping : database.selfMappings) {
+                entities.remove(mapping);
+                entityByName.remove(mapping.getEntityClass().getName(), mapping);
+            }
+        }
+    }
+
+    /**
+     * Closes every database, after any builds in progress finish, stops building databases, and closes the shared
+     * connection pool.
+     */
+    public void close() {
+        buildExecutor.shutdown();
+
+        List<Database> databases = new ArrayList<>();
+        synchronized (this.databases) {
+            for (io.manebot.database.Database database : this.databases.values()) databases.add((Database) database);
+        }
+
+        // Dependents were defined after their dependencies, so they are closed first.
+        Collections.reverse(databases);
+        for (Database database : databases) {
+            try {
+                database.close();
+            } catch (RuntimeException e) {
+                Logger.getGlobal().log(Level.WARNING, "Problem closing database " + database.getName(), e);
+            }
+        }
+
+        if (sharedConnections != null) sharedConnections.close();
     }
 
     private Field findPrimaryField(Class<?> entityClass) {
@@ -245,7 +520,7 @@ public class HibernateManager implements DatabaseManager {
         }
     }
 
-    private class Database implements io.manebot.database.Database {
+    private class Database implements CachedDatabase, AsyncDatabase {
         private final HibernateManager instance = HibernateManager.this;
 
         private final String name;
@@ -253,15 +528,19 @@ public class HibernateManager implements DatabaseManager {
         private final Collection<EntityMapping> selfMappings = new LinkedHashSet<>();
         private final Collection<Class<?>> selfEntities;
         private final Collection<Class<?>> allEntities;
+        private final Map<Class<?>, RegionSettings> cachedEntities;
         private final Collection<AttributeConverter<?,?>> attributeConverters;
         private final ClassLoader classLoader;
         private final Collection<io.manebot.database.Database> dependentDatabases;
 
-        private final SessionFactory sessionFactory;
+        private final CompletableFuture<SessionFactory> sessionFactory;
+        private final CompletableFuture<AsyncDatabase> buildFuture;
+        private volatile Duration buildTime;
 
         public Database(String name,
                         Collection<Class<?>> selfEntities,
                         Collection<Class<?>> allEntities,
+                        Map<Class<?>, RegionSettings> cachedEntities,
                         Collection<AttributeConverter<?, ?>> attributeConverters,
                         ClassLoader classLoader,
                         Collection<io.manebot.database.Database> dependentDatabases,
@@ -270,49 +549,81 @@ public class HibernateManager implements DatabaseManager {
 
             this.selfEntities = selfEntities;
             this.allEntities = allEntities;
+            this.cachedEntities = cachedEntities;
             this.attributeConverters = attributeConverters;
             this.classLoader = classLoader;
             this.dependentDatabases = dependentDatabases;
 
             this.sessionFactory = buildSessionFactory(attributeConverters, updateSchema);
+            this.buildFuture = sessionFactory.thenApply(built -> this);
         }
 
-        private SessionFactory buildSessionFactory(Collection<AttributeConverter<?,?>> attributeConverters,
-                                                   boolean updateSchema) {
+        private CompletableFuture<SessionFactory> buildSessionFactory(
+                Collection<AttributeConverter<?,?>> attributeConverters,
+                boolean updateSchema) {
             // register own entities
             selfEntities.forEach(clazz -> {
                 try {
-                    selfMappings.add(registerEntityClass(this, clazz));
+                    selfMappings.add(registerEntityClass(this, clazz, cachedEntities.get(clazz)));
                 } catch (ReflectiveOperationException e) {
                     throw new RuntimeException(e);
                 }
             });
 
-            // a fix for class loading outside of main JAR:
-            // https://stackoverflow.com/questions/27304580/map-entities-loaded-dynamically-from-external-jars-or-outside-classpath
-            CompletableFuture<SessionFactory> future = new CompletableFuture<>();
-            new Thread(() -> {
-                Thread.currentThread().setContextClassLoader(getClassLoader());
+            // dependencies' schemas must be in place first
+            CompletableFuture<?>[] dependencies = dependentDatabases.stream()
+                    .map(database -> ((Database) database).sessionFactory)
+                    .toArray(CompletableFuture<?>[]::new);
+
+            return CompletableFuture.allOf(dependencies).thenApplyAsync(ignored -> {
+                Thread thread = Thread.currentThread();
+                ClassLoader contextClassLoader = thread.getContextClassLoader();
+
+                // a fix for class loading outside of main JAR:
+                // https://stackoverflow.com/questions/27304580/map-entities-loaded-dynamically-from-external-jars-or-outside-classpath
+                thread.setContextClassLoader(getClassLoader());
 
                 // build the SessionFactory used to interact with this model graph
+                long start = System.nanoTime();
                 try {
-                    future.complete(buildFactory(
+                    return buildFactory(
+                            name,
                             allEntities,
                             attributeConverters,
                             updateSchema ? selfEntities : Collections.emptyList()
-                    ));
-                } catch (Throwable e) {
-                    future.completeExceptionally(e);
+                    );
+                } finally {
+                    thread.setContextClassLoader(contextClassLoader);
+
+                    buildTime = Duration.ofNanos(System.nanoTime() - start);
+                    Logger.getGlobal().info("Built database " + name + " (" + buildTime.toMillis() + "ms).");
                 }
-            }).start();
+            }, buildExecutor);
+        }
 
+        /**
+         * Gets the session factory, waiting for it to be built.
+         * @return session factory.
+         */
+        private SessionFactory getSessionFactory() {
             try {
-                return future.get();
-            } catch (InterruptedException | ExecutionException e) {
-                throw new RuntimeException("Problem building session factory for database", e);
+                return sessionFactory.join();
+            } catch (CompletionException | CancellationException e) {
+                throw new RuntimeException("Problem building session factory for database " + name,
+                        e.getCause() != null ? e.getCause() : e);
             }
         }
 
+        @Override
+        public CompletableFuture<AsyncDatabase> getBuildFuture() {
+            return buildFuture;
+        }
+
+        @Override
+        public Duration getBuildTime() {
+            return sessionFactory.isDone() ? buildTime : null;
+        }
+
         @Override
         public ClassLoader getClassLoader() {
             return classLoader;
@@ -340,12 +651,12 @@ public class HibernateManager implements DatabaseManager {
 
         @Override
         public boolean isClosed() {
-            return sessionFactory.isClosed();
+            return getSessionFactory().isClosed();
         }
 
         @Override
         public EntityManager openSession() {
-            return sessionFactory.openSession();
+            return getSessionFactory().openSession();
         }
 
         @Override
@@ -353,6 +664,29 @@ public class HibernateManager implements DatabaseManager {
             return new DefaultSearchHandler.Builder<>(this, aClass);
         }
 
+        @Override
+        public Map<String, RegionStorage> getCacheRegions() {
+            Map<String, RegionStorage> regions = new LinkedHashMap<>();
+
+            for (EntityMapping mapping : selfMappings) {
+                if (!mapping.isCached()) continue;
+
+                RegionStorage region = cacheRegions.getRegion(mapping.getEntityClass().getName());
+                if (region != null) regions.put(region.getName(), region);
+            }
+
+            return Collections.unmodifiableMap(regions);
+        }
+
+        @Override
+        public void evictCache() {
+            for (EntityMapping mapping : selfMappings)
+                if (mapping.isCached()) getSessionFactory().getCache().evictEntityData(mapping.getEntityClass());
+
+            if (getSessionFactory().getSessionFactoryOptions().isQueryCacheEnabled())
+                getSessionFactory().getCache().evictQueryRegions();
+        }
+
         @Override
         public int hashCode() {
             return getName().hashCode();
@@ -360,25 +694,149 @@ public class HibernateManager implements DatabaseManager {
 
         @Override
         public void close() {
-            sessionFactory.close();
+            SessionFactory sessionFactory;
+            try {
+                sessionFactory = this.sessionFactory.join();
+            } catch (CompletionException | CancellationException e) {
+                sessionFactory = null; // never built, so there is nothing to close
+            }
+
+            if (sessionFactory != null) sessionFactory.close();
 
             for (EntityMapping mapping : selfMappings)
                 mapping.clearPersistence();
         }
     }
 
+    /**
+     * Interceptor provides global (cross-SessionFactory) caching mechanism for the system.
+     *
+     * One is created per session, to track the entities the session's transactions write: once a transaction
+     * completes, deleted entities are forgotten, and if it was rolled back, so is every entity it wrote, since the
+     * shared instances may hold changes that never reached the database.
+     */
+    private class SessionInterceptor extends EmptyInterceptor {
+        private final Map<EntityMapping, Set<Serializable>> deleted = new HashMap<>();
+        private final Map<EntityMapping, Set<Serializable>> written = new HashMap<>();
+        private final Map<Object, EntityListener.Change> changed = new IdentityHashMap<>();
+
+        @Override
+        public boolean onLoad(Object entity, Serializable key, Object[] values, String[] properties, Type[] types)
+                throws CallbackException {
+            Class<?> clazz = entity.getClass();
+            EntityMapping mapping = entityByName.get(clazz.getName());
+            if (mapping == null) return false;
+
+            mapping.putInstance(key, entity);
+            return true;
+        }
+
+        @Override
+        public Object getEntity(String entityName, Serializable id) {
+            EntityMapping mapping = entityByName.get(entityName);
+            if (mapping == null) return null;
+
+            return mapping.getInstance(id);
+        }
+
+        @Override
+        public Object instantiate(String entityName, EntityMode entityMode, Serializable id) {
+            EntityMapping mapping = entityByName.get(entityName);
+            if (mapping == null) return null;
+            return mapping.newInstance(id);
+        }
+
+        @Override
+        public boolean onSave(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types)
+                throws CallbackException {
+            track(written, entity, id);
+            trackChange(entity, EntityListener.Change.SAVED);
+            return false;
+        }
+
+        @Override
+        public boolean onFlushDirty(Object entity, Serializable id, Object[] currentState, Object[] previousState,
+                                    String[] propertyNames, Type[] types) throws CallbackException {
+            track(written, entity, id);
+            trackChange(entity, EntityListener.Change.UPDATED);
+            return false;
+        }
+
+        @Override
+        public void onDelete(Object entity, Serializable id, Object[] state, String[] propertyNames, Type[] types)
+                throws CallbackException {
+            track(deleted, entity, id);
+            trackChange(entity, EntityListener.Change.DELETED);
+        }
+
+        @Override
+        public void afterTransactionCompletion(Transaction tx) {
+            if (tx.getStatus() != TransactionStatus.COMMITTED)
+                written.forEach((mapping, ids) -> ids.forEach(mapping::invalidateInstance));
+
+            deleted.forEach((mapping, ids) -> ids.forEach(mapping::invalidateInstance));
+
+            written.clear();
+            deleted.clear();
+
+            if (changed.isEmpty()) return;
+
+            Map<Object, EntityListener.Change> committed = new IdentityHashMap<>(changed);
+            changed.clear();
+
+            if (tx.getStatus() == TransactionStatus.COMMITTED)
+                committed.forEach(HibernateManager.this::fireEntityListeners);
+        }
+
+        private void trackChange(Object entity, EntityListener.Change change) {
+            if (!hasEntityListeners(entity)) return;
+
+            // An entity saved and then updated in one transaction was saved; one deleted was deleted.
+            changed.merge(entity, change, (previous, next) ->
+                    next == EntityListener.Change.DELETED ? next : previous);
+        }
+
+        private void track(Map<EntityMapping, Set<Serializable>> tracked, Object entity, Serializable id) {
+            if (id == null) return; // not yet assigned, so it can't be cached
+
+            EntityMapping mapping = entityByName.get(entity.getClass().getName());
+            if (mapping == null) return;
+
+            tracked.computeIfAbsent(mapping, key -> new HashSet<>()).add(id);
+        }
+    }
+
+    private static final class EntityListenerRegistration<T> {
+        private final Class<T> entityClass;
+        private final EntityListener<? super T> listener;
+
+        private EntityListenerRegistration(Class<T> entityClass, EntityListener<? super T> listener) {
+            this.entityClass = entityClass;
+            this.listener = listener;
+        }
+
+        private void fire(Object entity, EntityListener.Change change) {
+            if (entityClass.isInstance(entity)) listener.onCommitted(entityClass.cast(entity), change);
+        }
+    }
+
     private class EntityMapping {
         private final Class<?> clazz;
         private final Database database;
-        private final Map<Serializable, Object> persistenceMap = new MapMaker().weakValues().makeMap();
         private final Function<Serializable, ?> instantiator;
+        private final EntityCache cache;
+        private final boolean cached;
 
         private EntityMapping(Class<?> clazz,
                               Database database,
-                              Function<Serializable, ?> instantiator) {
+                              Function<Serializable, ?> instantiator,
+                              EntityCache cache,
+                              boolean cached) {
             this.clazz = clazz;
             this.database = database;
             this.instantiator = instantiator;
+            this.cache = cache;
+            this.cached = cached;
         }
 
         public Class<?> getEntityClass() {
@@ -389,16 +847,31 @@ public class HibernateManager implements DatabaseManager {
             return database;
         }
 
+        public EntityCache getCache() {
+            return cache;
+        }
+
+        /**
+         * @return true if the entity is kept in the second-level cache.
+         */
+        public boolean isCached() {
+            return cached;
+        }
+
         public void clearPersistence() {
-            persistenceMap.clear();
+            cache.clear();
         }
 
         public Object getInstance(Serializable key) {
-            return persistenceMap.get(key);
+            return cache.get(key);
+        }
+
+        public void putInstance(Serializable key, Object instance) {
+            cache.put(key, instance);
         }
 
-        public Object putInstance(Serializable key, Object instance) {
-            return persistenceMap.put(key, instance);
+        public void invalidateInstance(Serializable key) {
+            cache.invalidate(key);
         }
 
         @Override
@@ -411,7 +884,7 @@ public class HibernateManager implements DatabaseManager {
         }
     }
 
-    private class ModelConstructor implements io.manebot.database.Database.ModelConstructor {
+    private class ModelConstructor implements CachedDatabase.CachingModelConstructor {
         private final String name;
 
         private final Set<io.manebot.database.Database> dependentDatabases
@@ -427,6 +900,11 @@ public class HibernateManager implements DatabaseManager {
          */
         private final Set<Class<?>> selfEntities = new LinkedHashSet<>();
 
+        /**
+         * Self entities kept in the second-level cache, and the settings of their regions
+         */
+        private final Map<Class<?>, RegionSettings> cachedEntities = new LinkedHashMap<>();
+
         private ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
 
         private final Collection<AttributeConverter<?,?>> attributeConverters = new LinkedList<>();
@@ -536,6 +1014,22 @@ public class HibernateManager implements DatabaseManager {
             return this;
         }
 
+        @Override
+        public CachedDatabase.CachingModelConstructor cacheEntity(Class<?> aClass) {
+            return cacheEntity(aClass, cacheRegions.getDefaultSettings());
+        }
+
+        @Override
+        public CachedDatabase.CachingModelConstructor cacheEntity(Class<?> aClass, RegionSettings settings) {
+            if (settings == null) throw new NullPointerException("settings");
+            if (!selfEntities.contains(aClass))
+                throw new IllegalArgumentException("entity class " + aClass.getName() + " is not registered");
+
+            cachedEntities.put(aClass, settings);
+
+            return this;
+        }
+
         @Override
         public boolean willUpdateSchema() {
             return updateSchema;
@@ -552,6 +1046,7 @@ public class HibernateManager implements DatabaseManager {
                     name,
                     selfEntities,
                     allEntities,
+                    cachedEntities,
                     attributeConverters,
                     classLoader,
                     dependentDatabases,
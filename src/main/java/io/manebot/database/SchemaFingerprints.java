@@ -0,0 +1,144 @@
+package io.manebot.database;
+
+import io.manebot.database.model.SchemaFingerprint;
+import org.hibernate.SessionFactory;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.hibernate.boot.Metadata;
+import org.hibernate.mapping.Column;
+import org.hibernate.mapping.ForeignKey;
+import org.hibernate.mapping.Index;
+import org.hibernate.mapping.Table;
+import org.hibernate.mapping.UniqueKey;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.PersistenceException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+
+/**
+ * Fingerprints of the mapped schema of each database, stored in the database itself.
+ *
+ * A database whose tables, columns, keys and attribute converters are mapped the same way as when its schema was
+ * last updated has the same fingerprint, and its schema doesn't need to be updated again. Fingerprints are stored
+ * as {@link SchemaFingerprint} rows, through each database's own session factory.
+ */
+final class SchemaFingerprints {
+    /**
+     * Computes the fingerprint of a database's mapping.
+     * @param metadata mapped metadata.
+     * @param attributeConverters attribute converters applied to the mapping.
+     * @return fingerprint.
+     */
+    String compute(Metadata metadata, Collection<AttributeConverter<?,?>> attributeConverters) {
+        List<String> lines = new ArrayList<>();
+
+        for (Table table : metadata.collectTableMappings()) {
+            String prefix = table.getName() + " ";
+
+            for (Iterator<?> iterator = table.getColumnIterator(); iterator.hasNext(); ) {
+                Column column = (Column) iterator.next();
+                lines.add(prefix + "column " + column.getName() + " " +
+                        column.getValue().getType().getName() + " " +
+                        column.getSqlType() + " " +
+                        column.getLength() + " " + column.getPrecision() + " " + column.getScale() + " " +
+                        column.isNullable() + " " + column.isUnique());
+            }
+
+            if (table.getPrimaryKey() != null)
+                lines.add(prefix + "primary " + columnNames(table.getPrimaryKey().getColumns()));
+
+            for (Iterator<?> iterator = table.getForeignKeyIterator(); iterator.hasNext(); ) {
+                ForeignKey foreignKey = (ForeignKey) iterator.next();
+                lines.add(prefix + "foreign " + foreignKey.getName() + " " + columnNames(foreignKey.getColumns()) +
+                        " " + foreignKey.getReferencedTable().getName());
+            }
+
+            for (Iterator<?> iterator = table.getUniqueKeyIterator(); iterator.hasNext(); ) {
+                UniqueKey uniqueKey = (UniqueKey) iterator.next();
+                lines.add(prefix + "unique " + uniqueKey.getName() + " " + columnNames(uniqueKey.getColumns()));
+            }
+
+            for (Iterator<?> iterator = table.getIndexIterator(); iterator.hasNext(); ) {
+                Index index = (Index) iterator.next();
+                List<Column> columns = new ArrayList<>();
+                for (Iterator<?> columnIterator = index.getColumnIterator(); columnIterator.hasNext(); )
+                    columns.add((Column) columnIterator.next());
+
+                lines.add(prefix + "index " + index.getName() + " " + columnNames(columns));
+            }
+        }
+
+        for (AttributeConverter<?,?> attributeConverter : attributeConverters)
+            lines.add("converter " + attributeConverter.getClass().getName());
+
+        // Mapping order depends on registration order, which doesn't change the schema.
+        Collections.sort(lines);
+
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (String line : lines) digest.update((line + "\n").getBytes(StandardCharsets.UTF_8));
+
+            StringBuilder builder = new StringBuilder();
+            for (byte b : digest.digest()) builder.append(String.format("%02x", b));
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Reads the fingerprint stored for a database.
+     * @param sessionFactory the database's session factory, mapping {@link SchemaFingerprint}.
+     * @param database database name.
+     * @return fingerprint, or null if none is stored.
+     * @throws PersistenceException if the fingerprint couldn't be read, such as before the table is created.
+     */
+    String read(SessionFactory sessionFactory, String database) {
+        StatelessSession session = sessionFactory.openStatelessSession();
+
+        try {
+            SchemaFingerprint row = (SchemaFingerprint) session.get(SchemaFingerprint.class, database);
+            return row != null ? row.getFingerprint() : null;
+        } finally {
+            session.close();
+        }
+    }
+
+    /**
+     * Stores the fingerprint of a database, after its schema is updated.
+     * @param sessionFactory the database's session factory, mapping {@link SchemaFingerprint}.
+     * @param database database name.
+     * @param fingerprint fingerprint.
+     * @throws PersistenceException if the fingerprint couldn't be written.
+     */
+    void write(SessionFactory sessionFactory, String database, String fingerprint) {
+        StatelessSession session = sessionFactory.openStatelessSession();
+        Transaction transaction = session.beginTransaction();
+
+        try {
+            SchemaFingerprint row = (SchemaFingerprint) session.get(SchemaFingerprint.class, database);
+            if (row == null) {
+                session.insert(new SchemaFingerprint(database, fingerprint));
+            } else {
+                row.setFingerprint(fingerprint);
+                session.update(row);
+            }
+
+            transaction.commit();
+        } catch (RuntimeException e) {
+            if (transaction.isActive()) transaction.rollback();
+            throw e;
+        } finally {
+            session.close();
+        }
+    }
+
+    private static String columnNames(List<Column> columns) {
+        StringJoiner joiner = new StringJoiner(",", "(", ")");
+        for (Column column : columns) joiner.add(column.getName());
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,194 @@
+package io.manebot.database;
+
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.engine.jdbc.connections.spi.ConnectionProvider;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * One connection pool shared by the session factories of every database.
+ *
+ * The pool is the connection provider the properties configure, such as c3p0, created once. Each database draws from
+ * it through its own {@link DatabaseConnections}, which can limit how many of the pool's connections the database
+ * holds at once, and records how long the database waits for connections.
+ */
+public final class SharedConnectionProvider {
+    private final Properties properties;
+    private final StandardServiceRegistry serviceRegistry;
+    private final ConnectionProvider connectionProvider;
+
+    private final ConcurrentMap<String, DatabaseConnections> databases = new ConcurrentHashMap<>();
+
+    /**
+     * @param properties Hibernate properties configuring the pool, and per-database limits:
+     *                   <code>connection.database.max_size</code>, overridden for one database by
+     *                   <code>connection.database.&lt;name&gt;.max_size</code> (0 for no limit), and
+     *                   <code>connection.database.timeout</code>, in seconds to wait for a connection within a
+     *                   database's limit (0 to wait indefinitely).
+     */
+    SharedConnectionProvider(Properties properties) {
+        this.properties = properties;
+
+        this.serviceRegistry = new StandardServiceRegistryBuilder()
+                .applySettings(properties)
+                .build();
+        this.connectionProvider = serviceRegistry.getService(ConnectionProvider.class);
+    }
+
+    /**
+     * Closes the pool. Session factories drawing from it must be closed first.
+     */
+    void close() {
+        StandardServiceRegistryBuilder.destroy(serviceRegistry);
+    }
+
+    /**
+     * Gets the connection provider of one database's session factory.
+     * @param name database name.
+     * @return connection provider.
+     */
+    DatabaseConnections getDatabaseConnections(String name) {
+        return databases.computeIfAbsent(name, key -> new DatabaseConnections(
+                key,
+                Integer.parseInt(properties.getProperty(
+                        "connection.database." + key + ".max_size",
+                        properties.getProperty("connection.database.max_size", "0")
+                )),
+                Long.parseLong(properties.getProperty("connection.database.timeout", "0"))
+        ));
+    }
+
+    public Collection<DatabaseConnections> getDatabaseConnections() {
+        return Collections.unmodifiableCollection(databases.values());
+    }
+
+    /**
+     * Connections held by one database. Closing the database's session factory leaves the shared pool open.
+     */
+    public final class DatabaseConnections implements ConnectionProvider {
+        private final String name;
+        private final int maximumSize;
+        private final long timeout;
+        private final Semaphore permits;
+
+        private final AtomicInteger inUse = new AtomicInteger();
+        private final LongAdder acquisitions = new LongAdder();
+        private final LongAdder waitNanos = new LongAdder();
+        private final LongAccumulator maximumWaitNanos = new LongAccumulator(Math::max, 0L);
+
+        private DatabaseConnections(String name, int maximumSize, long timeout) {
+            if (maximumSize < 0) throw new IllegalArgumentException("maximumSize");
+            if (timeout < 0) throw new IllegalArgumentException("timeout");
+
+            this.name = name;
+            this.maximumSize = maximumSize;
+            this.timeout = timeout;
+            this.permits = maximumSize > 0 ? new Semaphore(maximumSize, true) : null;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            long start = System.nanoTime();
+
+            if (permits != null) {
+                try {
+                    if (timeout <= 0) permits.acquire();
+                    else if (!permits.tryAcquire(timeout, TimeUnit.SECONDS))
+                        throw new SQLTransientConnectionException(
+                                "Timed out waiting for a connection for database " + name
+                        );
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new SQLTransientConnectionException(
+                            "Interrupted waiting for a connection for database " + name, e
+                    );
+                }
+            }
+
+            Connection connection;
+            try {
+                connection = connectionProvider.getConnection();
+            } catch (Throwable e) {
+                if (permits != null) permits.release();
+                throw e;
+            }
+
+            long waited = System.nanoTime() - start;
+            waitNanos.add(waited);
+            maximumWaitNanos.accumulate(waited);
+            acquisitions.increment();
+            inUse.incrementAndGet();
+
+            return connection;
+        }
+
+        @Override
+        public void closeConnection(Connection connection) throws SQLException {
+            try {
+                connectionProvider.closeConnection(connection);
+            } finally {
+                inUse.decrementAndGet();
+                if (permits != null) permits.release();
+            }
+        }
+
+        @Override
+        public boolean supportsAggressiveRelease() {
+            return connectionProvider.supportsAggressiveRelease();
+        }
+
+        @Override
+        public boolean isUnwrappableAs(Class unwrapType) {
+            return unwrapType.isInstance(this) || connectionProvider.isUnwrappableAs(unwrapType);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T unwrap(Class<T> unwrapType) {
+            if (unwrapType.isInstance(this)) return (T) this;
+            return connectionProvider.unwrap(unwrapType);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return most connections the database may hold at once, or 0 if only the pool limits it.
+         */
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public int getInUse() {
+            return inUse.get();
+        }
+
+        public long getAcquisitions() {
+            return acquisitions.sum();
+        }
+
+        /**
+         * @return total time spent waiting for connections, within the database's limit and for the pool.
+         */
+        public Duration getWaitTime() {
+            return Duration.ofNanos(waitNanos.sum());
+        }
+
+        public Duration getMaximumWaitTime() {
+            return Duration.ofNanos(maximumWaitNanos.get());
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package io.manebot.database;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.collect.MapMaker;
+
+import java.io.Serializable;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Entity cache holding the most recently used instances strongly, and every instance weakly.
+ *
+ * Instances are looked up only by their weak references, and the most recently used are also held strongly, so they
+ * stay cached. An instance no longer held strongly stays cached for as long as anything else references it, so an
+ * instance still in use is never replaced by a second instance of the same row. It is held strongly again once it
+ * is used again.
+ */
+public final class TieredEntityCache implements EntityCache {
+    private static final long defaultMaximumSize = 1_000L;
+
+    private final long maximumSize;
+
+    /**
+     * Every cached instance, by identifier.
+     */
+    private final ConcurrentMap<Serializable, Object> weak = new MapMaker().weakValues().makeMap();
+
+    /**
+     * Most recently used instances, only held to keep them cached.
+     */
+    private final Cache<Serializable, Object> strong;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder weakHits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maximumSize maximum number of instances to hold strongly; 0 holds every instance weakly.
+     */
+    public TieredEntityCache(long maximumSize) {
+        if (maximumSize < 0) throw new IllegalArgumentException("maximumSize");
+
+        this.maximumSize = maximumSize;
+        this.strong = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+    }
+
+    public TieredEntityCache() {
+        this(defaultMaximumSize);
+    }
+
+    /**
+     * Reads the cache settings of an entity class. Recognized properties: <code>entitycache.size</code> and, for
+     * one entity class, <code>entitycache.size.&lt;class name&gt;</code>.
+     * @param entityClass entity class.
+     * @param properties property section to read.
+     * @return TieredEntityCache instance.
+     */
+    public static TieredEntityCache fromProperties(Class<?> entityClass, Properties properties) {
+        String maximumSize = properties.getProperty(
+                "entitycache.size." + entityClass.getName(),
+                properties.getProperty("entitycache.size", Long.toString(defaultMaximumSize))
+        );
+
+        return new TieredEntityCache(Long.parseLong(maximumSize));
+    }
+
+    @Override
+    public Object get(Serializable id) {
+        Object instance = weak.get(id);
+        if (instance == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+
+        if (strong.getIfPresent(id) != instance) {
+            weakHits.increment();
+            strong.put(id, instance);
+        }
+
+        return instance;
+    }
+
+    @Override
+    public void put(Serializable id, Object instance) {
+        weak.put(id, instance);
+        strong.put(id, instance);
+    }
+
+    @Override
+    public void invalidate(Serializable id) {
+        weak.remove(id);
+        strong.invalidate(id);
+    }
+
+    @Override
+    public void clear() {
+        weak.clear();
+        strong.invalidateAll();
+    }
+
+    @Override
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of hits on instances that had been evicted, but were still referenced.
+     */
+    public long getWeakHits() {
+        return weakHits.sum();
+    }
+
+    @Override
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    @Override
+    public long getEvictions() {
+        return strong.stats().evictionCount();
+    }
+
+    @Override
+    public long getSize() {
+        return strong.size();
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+}
@@ -0,0 +1,78 @@
+package io.manebot.database.cache;
+
+import org.hibernate.cache.spi.RegionFactory;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Second-level cache regions shared by the session factories of one database manager.
+ *
+ * Session factories of databases that depend on each other map the same entities, so they share regions by name:
+ * a change written through one session factory is seen by the caches of all of them.
+ */
+public final class CacheRegions {
+    private final Properties properties;
+    private final RegionSettings defaultSettings;
+
+    private final ConcurrentMap<String, RegionSettings> regionDefaults = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, RegionStorage> regions = new ConcurrentHashMap<>();
+
+    /**
+     * @param properties property section to read region settings from; see
+     *                   {@link RegionSettings#fromProperties(String, Properties, RegionSettings)}.
+     */
+    public CacheRegions(Properties properties) {
+        this.properties = properties;
+        this.defaultSettings = RegionSettings.fromProperties(properties);
+    }
+
+    public RegionSettings getDefaultSettings() {
+        return defaultSettings;
+    }
+
+    /**
+     * Sets the settings a region is created with, where the properties don't configure it.
+     * @param region region name.
+     * @param settings region settings.
+     */
+    public void setDefaultSettings(String region, RegionSettings settings) {
+        regionDefaults.put(region, settings);
+    }
+
+    /**
+     * @return a new region factory, for one session factory, storing its regions here.
+     */
+    public RegionFactory createRegionFactory() {
+        return new InProcessRegionFactory(this);
+    }
+
+    /**
+     * Gets a region that has been created by a session factory.
+     * @param name region name.
+     * @return region, or null if no session factory has created it.
+     */
+    public RegionStorage getRegion(String name) {
+        return regions.get(name);
+    }
+
+    public Collection<RegionStorage> getRegions() {
+        return Collections.unmodifiableCollection(regions.values());
+    }
+
+    RegionStorage getOrCreateRegion(String name) {
+        return regions.computeIfAbsent(name, key -> new RegionStorage(
+                key,
+                RegionSettings.fromProperties(key, properties, regionDefaults.getOrDefault(key, defaultSettings))
+        ));
+    }
+
+    /**
+     * Gets or creates a region of update timestamps. These are never evicted: a query result whose tables have no
+     * timestamp is taken to be up to date.
+     */
+    RegionStorage getOrCreateTimestampsRegion(String name) {
+        return regions.computeIfAbsent(name, key -> new RegionStorage(key, RegionSettings.unbounded()));
+    }
+}
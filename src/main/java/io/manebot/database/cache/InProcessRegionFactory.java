@@ -0,0 +1,50 @@
+package io.manebot.database.cache;
+
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cache.cfg.spi.DomainDataRegionBuildingContext;
+import org.hibernate.cache.cfg.spi.DomainDataRegionConfig;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.cache.spi.support.RegionFactoryTemplate;
+import org.hibernate.cache.spi.support.StorageAccess;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+
+import java.util.Map;
+
+/**
+ * Region factory of one session factory, storing regions in the database manager's shared {@link CacheRegions}.
+ */
+class InProcessRegionFactory extends RegionFactoryTemplate {
+    private final CacheRegions regions;
+
+    InProcessRegionFactory(CacheRegions regions) {
+        this.regions = regions;
+    }
+
+    @Override
+    protected DomainDataStorageAccess createDomainDataStorageAccess(DomainDataRegionConfig regionConfig,
+                                                                    DomainDataRegionBuildingContext buildingContext) {
+        return regions.getOrCreateRegion(regionConfig.getRegionName());
+    }
+
+    @Override
+    protected StorageAccess createQueryResultsRegionStorageAccess(String regionName,
+                                                                  SessionFactoryImplementor sessionFactory) {
+        return regions.getOrCreateRegion(regionName);
+    }
+
+    @Override
+    protected StorageAccess createTimestampsRegionStorageAccess(String regionName,
+                                                                SessionFactoryImplementor sessionFactory) {
+        return regions.getOrCreateTimestampsRegion(regionName);
+    }
+
+    @Override
+    protected void prepareForUse(SessionFactoryOptions settings, Map configValues) {
+        // Regions are shared, and created on demand.
+    }
+
+    @Override
+    protected void releaseFromUse() {
+        // Regions outlive any one session factory.
+    }
+}
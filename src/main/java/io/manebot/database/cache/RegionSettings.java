@@ -0,0 +1,116 @@
+package io.manebot.database.cache;
+
+import com.google.common.cache.CacheBuilder;
+
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Eviction policy of a second-level cache region.
+ */
+public final class RegionSettings {
+    private static final long defaultMaximumSize = 10_000L;
+
+    private static final RegionSettings unbounded = new RegionSettings(0L, 0L, Expiry.WRITE);
+
+    private final long maximumSize;
+    private final long ttl;
+    private final Expiry expiry;
+
+    /**
+     * @param maximumSize maximum number of entries; 0 for no limit.
+     * @param ttl seconds an entry is kept for; 0 to keep entries until they are evicted for size.
+     * @param expiry when an entry's time to live starts.
+     */
+    public RegionSettings(long maximumSize, long ttl, Expiry expiry) {
+        if (maximumSize < 0) throw new IllegalArgumentException("maximumSize");
+        if (ttl < 0) throw new IllegalArgumentException("ttl");
+        if (expiry == null) throw new NullPointerException("expiry");
+
+        this.maximumSize = maximumSize;
+        this.ttl = ttl;
+        this.expiry = expiry;
+    }
+
+    /**
+     * @return settings of a region that never evicts entries.
+     */
+    public static RegionSettings unbounded() {
+        return unbounded;
+    }
+
+    /**
+     * Reads the default region settings. Recognized properties: <code>cache.size</code>, <code>cache.ttl</code>
+     * (seconds) and <code>cache.expiry</code> (<code>write</code> or <code>access</code>).
+     * @param properties property section to read.
+     * @return RegionSettings instance.
+     */
+    public static RegionSettings fromProperties(Properties properties) {
+        return new RegionSettings(
+                Long.parseLong(properties.getProperty("cache.size", Long.toString(defaultMaximumSize))),
+                Long.parseLong(properties.getProperty("cache.ttl", "0")),
+                Expiry.valueOf(properties.getProperty("cache.expiry", "write").toUpperCase())
+        );
+    }
+
+    /**
+     * Reads the settings of one region. Recognized properties: <code>cache.&lt;region&gt;.size</code>,
+     * <code>cache.&lt;region&gt;.ttl</code> and <code>cache.&lt;region&gt;.expiry</code>, each falling back to the
+     * given defaults.
+     * @param region region name.
+     * @param properties property section to read.
+     * @param defaults settings to use where the region has none.
+     * @return RegionSettings instance.
+     */
+    public static RegionSettings fromProperties(String region, Properties properties, RegionSettings defaults) {
+        String prefix = "cache." + region + ".";
+
+        return new RegionSettings(
+                Long.parseLong(properties.getProperty(prefix + "size", Long.toString(defaults.maximumSize))),
+                Long.parseLong(properties.getProperty(prefix + "ttl", Long.toString(defaults.ttl))),
+                Expiry.valueOf(properties.getProperty(prefix + "expiry", defaults.expiry.name()).toUpperCase())
+        );
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getTtl() {
+        return ttl;
+    }
+
+    public Expiry getExpiry() {
+        return expiry;
+    }
+
+    CacheBuilder<Object, Object> newCacheBuilder() {
+        CacheBuilder<Object, Object> builder = CacheBuilder.newBuilder().recordStats();
+        if (maximumSize > 0) builder.maximumSize(maximumSize);
+
+        if (ttl > 0) {
+            switch (expiry) {
+                case WRITE:
+                    builder.expireAfterWrite(ttl, TimeUnit.SECONDS);
+                    break;
+                case ACCESS:
+                    builder.expireAfterAccess(ttl, TimeUnit.SECONDS);
+                    break;
+            }
+        }
+
+        return builder;
+    }
+
+    public enum Expiry {
+        /**
+         * Entries expire a time after they were cached.
+         */
+        WRITE,
+
+        /**
+         * Entries expire a time after they were last read or cached.
+         */
+        ACCESS
+    }
+}
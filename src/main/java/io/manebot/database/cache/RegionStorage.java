@@ -0,0 +1,88 @@
+package io.manebot.database.cache;
+
+import com.google.common.cache.Cache;
+import org.hibernate.cache.spi.support.DomainDataStorageAccess;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+
+/**
+ * In-process storage of one second-level cache region, shared by every session factory using the region.
+ */
+public final class RegionStorage implements DomainDataStorageAccess {
+    private final String name;
+    private final RegionSettings settings;
+    private final Cache<Object, Object> cache;
+
+    RegionStorage(String name, RegionSettings settings) {
+        this.name = name;
+        this.settings = settings;
+        this.cache = settings.newCacheBuilder().build();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public RegionSettings getSettings() {
+        return settings;
+    }
+
+    public long getSize() {
+        return cache.size();
+    }
+
+    public long getHits() {
+        return cache.stats().hitCount();
+    }
+
+    public long getMisses() {
+        return cache.stats().missCount();
+    }
+
+    /**
+     * @return number of entries evicted for size or expired.
+     */
+    public long getEvictions() {
+        return cache.stats().evictionCount();
+    }
+
+    @Override
+    public Object getFromCache(Object key, SharedSessionContractImplementor session) {
+        return cache.getIfPresent(key);
+    }
+
+    @Override
+    public void putIntoCache(Object key, Object value, SharedSessionContractImplementor session) {
+        if (value == null) cache.invalidate(key);
+        else cache.put(key, value);
+    }
+
+    @Override
+    public boolean contains(Object key) {
+        return cache.asMap().containsKey(key);
+    }
+
+    @Override
+    public void removeFromCache(Object key, SharedSessionContractImplementor session) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void clearCache(SharedSessionContractImplementor session) {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void evictData() {
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void evictData(Object key) {
+        cache.invalidate(key);
+    }
+
+    @Override
+    public void release() {
+        // Other session factories may still use this region.
+    }
+}
@@ -0,0 +1,41 @@
+package io.manebot.database.model;
+
+import javax.persistence.*;
+
+/**
+ * Fingerprint of a database's mapped schema, as of its last schema update.
+ *
+ * Every database maps this entity alongside its own, so the table is created by the dialect with the rest of the
+ * schema, and shared by all databases.
+ */
+@javax.persistence.Entity
+@Table(name = "system_schema_fingerprints")
+public class SchemaFingerprint {
+    @Id
+    @Column(name = "database_name", length = 255)
+    private String databaseName;
+
+    @Column(name = "fingerprint", length = 64, nullable = false)
+    private String fingerprint;
+
+    public SchemaFingerprint() {
+
+    }
+
+    public SchemaFingerprint(String databaseName, String fingerprint) {
+        this.databaseName = databaseName;
+        this.fingerprint = fingerprint;
+    }
+
+    public String getDatabaseName() {
+        return databaseName;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public void setFingerprint(String fingerprint) {
+        this.fingerprint = fingerprint;
+    }
+}
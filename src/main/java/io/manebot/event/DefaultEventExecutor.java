@@ -6,10 +6,10 @@ import java.lang.reflect.Method;
  * Executes an event using Java reflection.
  */
 public class DefaultEventExecutor implements EventExecutor {
-    private Method method;
+    private final Method method;
 
-    private EventListener eventListener;
-    private EventPriority eventPriority;
+    private final EventListener eventListener;
+    private final EventPriority eventPriority;
 
     public DefaultEventExecutor(
             EventListener eventListener,
@@ -18,12 +18,14 @@ public class DefaultEventExecutor implements EventExecutor {
         this.eventListener = eventListener;
         this.eventPriority = eventPriority;
         this.method = method;
+
+        // Resolve accessibility once, rather than on every fire
+        method.trySetAccessible();
     }
 
     @Override
     public void fire(Event event) throws EventExecutionException {
         try {
-            method.setAccessible(true);
             method.invoke(eventListener, event);
         } catch (Exception e) {
             throw new EventExecutionException(e);
@@ -1,67 +1,241 @@
 package io.manebot.event;
 
+import com.google.common.collect.MapMaker;
+
 import java.lang.reflect.Method;
-import java.util.LinkedHashMap;
-import java.util.LinkedList;
-import java.util.List;
-import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 
 public class DefaultEventManager implements EventManager, EventDispatcher {
-    private final ExecutorService executorService = Executors.newCachedThreadPool();
-    private final LinkedHashMap<Class<? extends Event>, List<EventAction>> eventMap = new LinkedHashMap<>();
+    private static final EventAction[] noActions = new EventAction[0];
+    private static final Comparator<EventAction> actionOrder =
+            Comparator.comparingInt((EventAction action) -> action.getEventExecutor().getPriority().ordinal())
+                    .thenComparingLong(EventAction::getSequence);
+
+    private final Object registrationLock = new Object();
+    private final EventExecutorFactory executorFactory = new EventExecutorFactory();
+    private final EventMetrics metrics = new EventMetrics(false);
+
+    /**
+     * Current listeners. Registration replaces the registry under the registration lock; dispatch only ever reads
+     * this reference.
+     */
+    private volatile ListenerRegistry registry = new ListenerRegistry(
+            Collections.emptyMap(),
+            new MapMaker().weakKeys().makeMap()
+    );
+
+    private volatile EventDispatchPool dispatchPool = new EventDispatchPool();
+
+    private long sequence = 0L;
 
     public DefaultEventManager() {
 
     }
 
+    /**
+     * Gets the pool that asynchronous events are dispatched on.
+     * @return EventDispatchPool instance.
+     */
+    public EventDispatchPool getDispatchPool() {
+        return dispatchPool;
+    }
+
+    /**
+     * Replaces the pool that asynchronous events are dispatched on.  The previous pool is shut down once the events
+     * already queued on it have been dispatched.
+     * @param dispatchPool new pool.
+     */
+    public void setDispatchPool(EventDispatchPool dispatchPool) {
+        EventDispatchPool previous = this.dispatchPool;
+        this.dispatchPool = Objects.requireNonNull(dispatchPool);
+        if (previous != dispatchPool) previous.shutdown();
+    }
+
+    /**
+     * Gets the dispatch metrics of this event manager. Metrics are disabled until enabled on the returned instance.
+     * @return EventMetrics instance.
+     */
+    public EventMetrics getMetrics() {
+        return metrics;
+    }
+
     @Override
     public void registerListener(EventListener eventListener) {
-        synchronized (eventMap) {
-            for (EventAction action : getActions(eventListener)) {
-                List<EventAction> actions = eventMap.computeIfAbsent(
-                        action.getEventClass(),
-                        k -> new CopyOnWriteArrayList<>()
-                );
-
-                actions.add(action);
-            }
-        }
+        registerListeners(Collections.singletonList(eventListener));
     }
 
     @Override
     public void unregisterListener(EventListener eventListener) {
-        synchronized (eventMap) {
-            for (EventAction action : getActions(eventListener)) {
-                List<EventAction> actions = eventMap.get(action.getEventClass());
-                if (actions == null) return;
+        unregisterListeners(Collections.singletonList(eventListener));
+    }
 
-                actions.removeIf(x -> x.getEventExecutor().getListener() == eventListener);
-            }
+    /**
+     * Registers several listeners at once. Events dispatched concurrently see either none or all of them.
+     * @param eventListeners listeners to register.
+     * @throws IllegalArgumentException if any of the listeners has an invalid handler; none are registered.
+     */
+    public void registerListeners(Collection<? extends EventListener> eventListeners) {
+        synchronized (registrationLock) {
+            List<EventAction> actions = new ArrayList<>();
+            for (EventListener eventListener : eventListeners) actions.addAll(getActions(eventListener));
+
+            registry = registry.update(actions, action -> false);
+        }
+    }
+
+    /**
+     * Unregisters several listeners at once. Events dispatched concurrently see either none or all of them.
+     * @param eventListeners listeners to unregister.
+     */
+    public void unregisterListeners(Collection<? extends EventListener> eventListeners) {
+        Set<EventListener> removed = Collections.newSetFromMap(new IdentityHashMap<>());
+        removed.addAll(eventListeners);
+
+        synchronized (registrationLock) {
+            registry = registry.update(
+                    Collections.emptyList(),
+                    action -> removed.contains(action.getEventExecutor().getListener())
+            );
         }
     }
 
+    /**
+     * Finds if any handler receives events of a class, including handlers of its supertypes.
+     * @param eventClass concrete event class.
+     * @return true if dispatching an event of the class would reach a handler.
+     */
+    public boolean hasListeners(Class<? extends Event> eventClass) {
+        Dispatch dispatch = registry.getDispatch(eventClass);
+        return dispatch.ordered.length > 0 || dispatch.independent.length > 0;
+    }
+
     @Override
     public <T extends Event> Future<T> executeAsync(T event) {
-        return executorService.submit(() -> execute(event));
+        // Nothing would handle it: skip the hand-off.
+        if (!metrics.isEnabled() && !hasListeners(event.getClass()))
+            return CompletableFuture.completedFuture(event);
+
+        return dispatchPool.submit(() -> execute(event));
     }
 
     @Override
     public <T extends Event> T execute(T event) throws EventExecutionException {
-        List<EventAction> actions = eventMap.get(event.getClass());
-        if (actions == null) return event;
+        Dispatch dispatch = registry.getDispatch(event.getClass());
+
+        if (!metrics.isEnabled()) {
+            dispatch(dispatch, event, false);
+            return event;
+        }
 
-        for (EventAction action : actions) action.getEventExecutor().fire(event);
+        long start = System.nanoTime();
+        boolean failed = true;
+
+        try {
+            dispatch(dispatch, event, true);
+            failed = false;
+        } finally {
+            dispatch.statistics.record(System.nanoTime() - start, failed);
+        }
 
         return event;
     }
 
-    @SuppressWarnings("unchecked")
+    private void dispatch(Dispatch dispatch, Event event, boolean timed) throws EventExecutionException {
+        if (dispatch.independent.length == 0) {
+            for (EventAction action : dispatch.ordered) action.fire(event, timed);
+            return;
+        }
+
+        List<ForkedHandler> tasks = new ArrayList<>(dispatch.independent.length);
+        EventDispatchPool pool = dispatchPool;
+
+        for (EventAction action : dispatch.independent) {
+            ForkedHandler task = new ForkedHandler(() -> action.fire(event, timed));
+            tasks.add(task);
+            pool.offer(task);
+        }
+
+        try {
+            for (EventAction action : dispatch.ordered) action.fire(event, timed);
+        } catch (Throwable e) {
+            // Handlers that haven't started won't; those already running are waited for, and their failures kept.
+            for (ForkedHandler task : tasks) {
+                if (task.cancelUnstarted()) continue;
+
+                try {
+                    task.get();
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    e.addSuppressed(interrupted);
+                    break;
+                } catch (ExecutionException failure) {
+                    e.addSuppressed(failure.getCause());
+                }
+            }
+
+            throw e;
+        }
+
+        join(tasks);
+    }
+
+    /**
+     * Waits for forked handlers to complete. Handlers the pool hasn't started yet are run on the calling thread, so
+     * dispatch can't stall on a saturated pool (or on itself, when called from a pool worker).
+     * @param tasks forked handlers.
+     * @throws EventExecutionException if any of the handlers failed; further failures are suppressed.
+     */
+    private static void join(List<ForkedHandler> tasks) throws EventExecutionException {
+        EventExecutionException failure = null;
+
+        for (ForkedHandler task : tasks) {
+            task.run(); // no-op if already started
+
+            try {
+                task.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new EventExecutionException(e);
+            } catch (ExecutionException e) {
+                EventExecutionException exception = e.getCause() instanceof EventExecutionException ?
+                        (EventExecutionException) e.getCause() :
+                        new EventExecutionException(e.getCause());
+
+                if (failure == null) failure = exception;
+                else failure.addSuppressed(exception);
+            }
+        }
+
+        if (failure != null) throw failure;
+    }
+
     private List<EventAction> getActions(EventListener listener) {
         List<EventAction> actions = new LinkedList<>();
 
+        for (Method method : getHandlerMethods(listener)) {
+            EventHandler annotation = method.getAnnotation(EventHandler.class);
+
+            actions.add(new EventAction(
+                    executorFactory.createExecutor(
+                        listener,
+                        annotation.priority(),
+                        method
+                    ),
+                    method,
+                    metrics.forHandler(method),
+                    sequence++
+            ));
+        }
+
+        return actions;
+    }
+
+    private static List<Method> getHandlerMethods(EventListener listener) {
+        List<Method> methods = new LinkedList<>();
+
         for (Method method : listener.getClass().getMethods()) {
             EventHandler annotation = method.getAnnotation(EventHandler.class);
             if (annotation == null) continue;
@@ -86,26 +260,187 @@ public class DefaultEventManager implements EventManager, EventDispatcher {
                         + " is not extensible by " + Event.class.getName()
                 );
 
-            actions.add(new EventAction(
-                    new DefaultEventExecutor(
-                        listener,
-                        annotation.priority(),
-                        method
-                    ),
-                    (Class<? extends Event>) parameter0
-            ));
+            methods.add(method);
         }
 
-        return actions;
+        return methods;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Class<? extends Event> getEventClass(Method method) {
+        return (Class<? extends Event>) method.getParameterTypes()[0];
     }
 
-    private class EventAction {
+    /**
+     * Immutable snapshot of the registered listeners.
+     */
+    private final class ListenerRegistry {
+        /**
+         * Handlers by the event class they accept, in registration order.
+         */
+        private final Map<Class<? extends Event>, EventAction[]> actions;
+
+        /**
+         * Dispatch table: every handler that accepts a given concrete event class, including listeners of its
+         * supertypes. Entries are built on first dispatch of a class. Keys are weak, so event classes defined by
+         * plugins do not keep their class loaders alive.
+         */
+        private final ConcurrentMap<Class<?>, Dispatch> dispatchTable;
+
+        private ListenerRegistry(Map<Class<? extends Event>, EventAction[]> actions,
+                                 ConcurrentMap<Class<?>, Dispatch> dispatchTable) {
+            this.actions = actions;
+            this.dispatchTable = dispatchTable;
+        }
+
+        /**
+         * Gets the handlers an event of the specified class is dispatched to.
+         * @param eventClass concrete event class.
+         * @return Dispatch instance; never null.
+         */
+        private Dispatch getDispatch(Class<?> eventClass) {
+            Dispatch dispatch = dispatchTable.get(eventClass);
+            if (dispatch != null) return dispatch;
+
+            // Snapshots never change, so racing to build the same entry is harmless.
+            dispatch = buildDispatch(eventClass);
+            Dispatch existing = dispatchTable.putIfAbsent(eventClass, dispatch);
+
+            return existing != null ? existing : dispatch;
+        }
+
+        private Dispatch buildDispatch(Class<?> eventClass) {
+            List<EventAction> ordered = new ArrayList<>();
+            List<EventAction> independent = new ArrayList<>();
+
+            for (Map.Entry<Class<? extends Event>, EventAction[]> entry : actions.entrySet())
+                if (entry.getKey().isAssignableFrom(eventClass))
+                    for (EventAction action : entry.getValue())
+                        (action.isIndependent() ? independent : ordered).add(action);
+
+            ordered.sort(actionOrder);
+            independent.sort(actionOrder);
+
+            return new Dispatch(
+                    ordered.toArray(noActions),
+                    independent.toArray(noActions),
+                    metrics.forEvent(eventClass)
+            );
+        }
+
+        /**
+         * Creates a snapshot with handlers added and removed. Dispatch table entries that neither change affects are
+         * carried over.
+         * @param added handlers to add.
+         * @param removed predicate matching handlers to remove.
+         * @return updated snapshot, or this snapshot if nothing changed.
+         */
+        private ListenerRegistry update(Collection<EventAction> added, Predicate<EventAction> removed) {
+            Map<Class<? extends Event>, List<EventAction>> updated = new LinkedHashMap<>();
+            Set<Class<? extends Event>> changed = new HashSet<>();
+
+            for (Map.Entry<Class<? extends Event>, EventAction[]> entry : actions.entrySet()) {
+                List<EventAction> kept = new ArrayList<>(entry.getValue().length);
+
+                for (EventAction action : entry.getValue())
+                    if (!removed.test(action)) kept.add(action);
+
+                if (kept.size() != entry.getValue().length) changed.add(entry.getKey());
+                if (!kept.isEmpty()) updated.put(entry.getKey(), kept);
+            }
+
+            for (EventAction action : added) {
+                updated.computeIfAbsent(action.getEventClass(), key -> new ArrayList<>()).add(action);
+                changed.add(action.getEventClass());
+            }
+
+            if (changed.isEmpty()) return this;
+
+            Map<Class<? extends Event>, EventAction[]> actions = new LinkedHashMap<>();
+            for (Map.Entry<Class<? extends Event>, List<EventAction>> entry : updated.entrySet())
+                actions.put(entry.getKey(), entry.getValue().toArray(noActions));
+
+            ConcurrentMap<Class<?>, Dispatch> dispatchTable = new MapMaker().weakKeys().makeMap();
+            for (Map.Entry<Class<?>, Dispatch> entry : this.dispatchTable.entrySet())
+                if (changed.stream().noneMatch(eventClass -> eventClass.isAssignableFrom(entry.getKey())))
+                    dispatchTable.put(entry.getKey(), entry.getValue());
+
+            return new ListenerRegistry(Collections.unmodifiableMap(actions), dispatchTable);
+        }
+    }
+
+    /**
+     * Independent handler forked to the pool. It runs at most once, on whichever thread claims it first, so that it
+     * can be told apart from a handler that never started.
+     */
+    private static final class ForkedHandler extends FutureTask<Void> {
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private ForkedHandler(Runnable runnable) {
+            super(runnable, null);
+        }
+
+        @Override
+        public void run() {
+            if (claimed.compareAndSet(false, true)) super.run();
+        }
+
+        /**
+         * Cancels the handler if it hasn't started.
+         * @return true if it was cancelled, false if it has started, and may still be running.
+         */
+        private boolean cancelUnstarted() {
+            return claimed.compareAndSet(false, true) && cancel(false);
+        }
+    }
+
+    /**
+     * Handlers an event class is dispatched to, each sorted by the declaration order of their {@link EventPriority},
+     * then by registration order. Independent handlers are forked before the ordered handlers run.
+     */
+    private static final class Dispatch {
+        private final EventAction[] ordered;
+        private final EventAction[] independent;
+        private final EventMetrics.Statistics statistics;
+
+        private Dispatch(EventAction[] ordered, EventAction[] independent, EventMetrics.Statistics statistics) {
+            this.ordered = ordered;
+            this.independent = independent;
+            this.statistics = statistics;
+        }
+    }
+
+    private static final class EventAction {
         private final EventExecutor eventExecutor;
         private final Class<? extends Event> eventClass;
+        private final boolean independent;
+        private final EventMetrics.Statistics statistics;
+        private final long sequence;
 
-        private EventAction(EventExecutor eventExecutor, Class<? extends Event> eventClass) {
+        private EventAction(EventExecutor eventExecutor, Method method, EventMetrics.Statistics statistics,
+                            long sequence) {
             this.eventExecutor = eventExecutor;
-            this.eventClass = eventClass;
+            this.eventClass = DefaultEventManager.getEventClass(method);
+            this.independent = method.isAnnotationPresent(Independent.class);
+            this.statistics = statistics;
+            this.sequence = sequence;
+        }
+
+        private void fire(Event event, boolean timed) throws EventExecutionException {
+            if (!timed) {
+                eventExecutor.fire(event);
+                return;
+            }
+
+            long start = System.nanoTime();
+            boolean failed = true;
+
+            try {
+                eventExecutor.fire(event);
+                failed = false;
+            } finally {
+                statistics.record(System.nanoTime() - start, failed);
+            }
         }
 
         private EventExecutor getEventExecutor() {
@@ -115,5 +450,13 @@ public class DefaultEventManager implements EventManager, EventDispatcher {
         private Class<? extends Event> getEventClass() {
             return eventClass;
         }
+
+        private boolean isIndependent() {
+            return independent;
+        }
+
+        private long getSequence() {
+            return sequence;
+        }
     }
 }
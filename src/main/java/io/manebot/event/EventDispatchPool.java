@@ -0,0 +1,255 @@
+package io.manebot.event;
+
+import java.util.Properties;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded worker pool used to dispatch asynchronous events.
+ *
+ * The pool never grows past its configured worker count, and never holds more than its configured number of queued
+ * events; what happens beyond that is decided by its {@link OverflowPolicy}.
+ */
+public class EventDispatchPool implements Executor {
+    private static final int defaultWorkers = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int defaultQueueCapacity = 1024;
+    private static final long keepAliveSeconds = 60L;
+
+    /**
+     * Times {@link OverflowPolicy#DROP_OLDEST} discards an event to make room before running the new one on the
+     * submitting thread instead, when other producers keep taking the room it makes.
+     */
+    private static final int dropAttempts = 4;
+
+    private final ThreadPoolExecutor executor;
+    private final OverflowPolicy overflowPolicy;
+    private final int queueCapacity;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder callerRuns = new LongAdder();
+
+    public EventDispatchPool(int workers, int queueCapacity, OverflowPolicy overflowPolicy,
+                             ThreadFactory threadFactory) {
+        if (workers <= 0) throw new IllegalArgumentException("workers");
+        if (queueCapacity <= 0) throw new IllegalArgumentException("queueCapacity");
+
+        this.overflowPolicy = overflowPolicy;
+        this.queueCapacity = queueCapacity;
+
+        this.executor = new ThreadPoolExecutor(
+                workers, workers,
+                keepAliveSeconds, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                threadFactory,
+                new OverflowHandler()
+        );
+
+        // Workers are started on demand and retired when idle.
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Creates a pool with default settings, backed by plain daemon threads.
+     */
+    public EventDispatchPool() {
+        this(defaultWorkers, defaultQueueCapacity, OverflowPolicy.CALLER_RUNS, new DaemonThreadFactory("event"));
+    }
+
+    /**
+     * Reads a pool configuration.
+     *
+     * Recognized properties: <code>async.workers</code>, <code>async.queue</code> and <code>async.overflow</code>
+     * (one of <code>caller_runs</code>, <code>drop_oldest</code> or <code>reject</code>).
+     *
+     * @param properties property section to read.
+     * @param threadFactory factory providing worker threads.
+     * @return EventDispatchPool instance.
+     */
+    public static EventDispatchPool fromProperties(Properties properties, ThreadFactory threadFactory) {
+        int workers = Integer.parseInt(properties.getProperty("async.workers", Integer.toString(defaultWorkers)));
+        int queueCapacity = Integer.parseInt(
+                properties.getProperty("async.queue", Integer.toString(defaultQueueCapacity))
+        );
+        OverflowPolicy overflowPolicy = OverflowPolicy.valueOf(
+                properties.getProperty("async.overflow", OverflowPolicy.CALLER_RUNS.name()).toUpperCase()
+        );
+
+        return new EventDispatchPool(workers, queueCapacity, overflowPolicy, threadFactory);
+    }
+
+    @Override
+    public void execute(Runnable runnable) {
+        executor.execute(runnable);
+    }
+
+    public <T> Future<T> submit(Callable<T> callable) {
+        return executor.submit(callable);
+    }
+
+    /**
+     * Offers a task to the pool without applying the overflow policy: if the pool is saturated or shut down, the task
+     * is quietly not run. The caller must be prepared to run the task itself, so the task must tolerate being run
+     * more than once (as {@link FutureTask} does).
+     * @param task task to offer.
+     */
+    public void offer(Runnable task) {
+        executor.execute(new Offer(task));
+    }
+
+    /**
+     * Stops accepting events; events already queued are still dispatched.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    public OverflowPolicy getOverflowPolicy() {
+        return overflowPolicy;
+    }
+
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getActiveWorkers() {
+        return executor.getActiveCount();
+    }
+
+    public int getWorkers() {
+        return executor.getPoolSize();
+    }
+
+    public int getMaximumWorkers() {
+        return executor.getMaximumPoolSize();
+    }
+
+    public long getCompleted() {
+        return executor.getCompletedTaskCount();
+    }
+
+    /**
+     * @return number of events refused under {@link OverflowPolicy#REJECT}, or after shutdown.
+     */
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return number of queued events discarded under {@link OverflowPolicy#DROP_OLDEST}, including offered tasks,
+     * which their callers then run themselves.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return number of events run on the submitting thread under {@link OverflowPolicy#CALLER_RUNS}, or under
+     * {@link OverflowPolicy#DROP_OLDEST} when no room could be made for them.
+     */
+    public long getCallerRuns() {
+        return callerRuns.sum();
+    }
+
+    public enum OverflowPolicy {
+        /**
+         * Dispatches the event on the submitting thread, slowing the producer down.
+         */
+        CALLER_RUNS,
+
+        /**
+         * Discards (cancels) the oldest queued event to make room. If other producers keep taking the room, the
+         * event is dispatched on the submitting thread instead.
+         */
+        DROP_OLDEST,
+
+        /**
+         * Refuses the event with a {@link RejectedExecutionException}.
+         */
+        REJECT
+    }
+
+    private class OverflowHandler implements RejectedExecutionHandler {
+        @Override
+        public void rejectedExecution(Runnable runnable, ThreadPoolExecutor executor) {
+            if (runnable instanceof Offer) return; // the caller runs it
+
+            if (executor.isShutdown()) {
+                rejected.increment();
+                throw new RejectedExecutionException("event dispatch pool is shut down");
+            }
+
+            switch (overflowPolicy) {
+                case CALLER_RUNS:
+                    callerRuns.increment();
+                    runnable.run();
+                    break;
+                case DROP_OLDEST:
+                    BlockingQueue<Runnable> queue = executor.getQueue();
+
+                    for (int attempt = 0; attempt < dropAttempts; attempt ++) {
+                        Runnable oldest = queue.poll();
+                        if (oldest != null) drop(oldest);
+
+                        if (queue.offer(runnable)) {
+                            // Workers may have retired since the pool was found saturated.
+                            executor.prestartCoreThread();
+                            return;
+                        }
+                    }
+
+                    callerRuns.increment();
+                    runnable.run();
+                    break;
+                case REJECT:
+                default:
+                    rejected.increment();
+                    throw new RejectedExecutionException(
+                            "event dispatch queue is full (" + queueCapacity + " events)"
+                    );
+            }
+        }
+    }
+
+    private void drop(Runnable task) {
+        dropped.increment();
+
+        // Offered tasks are run by whoever offered them. Don't leave anyone waiting on a dispatch that will never
+        // happen.
+        if (!(task instanceof Offer) && task instanceof Future) ((Future<?>) task).cancel(false);
+    }
+
+    private static final class Offer implements Runnable {
+        private final Runnable task;
+
+        private Offer(Runnable task) {
+            this.task = task;
+        }
+
+        @Override
+        public void run() {
+            task.run();
+        }
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+        private final AtomicInteger counter = new AtomicInteger();
+        private final String name;
+
+        private DaemonThreadFactory(String name) {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package io.manebot.event;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Creates executors for {@link EventHandler} methods.
+ *
+ * Handlers are bound once, at registration time, to the cheapest invoker the JVM allows:
+ * <ol>
+ *     <li>a {@link LambdaMetafactory}-generated {@link LambdaEventExecutor.Invoker}, when the listener's class can
+ *     be looked up privately. This is every class in an unnamed module, so listeners of the bot and of plugins,
+ *     whatever their class loader, alike;</li>
+ *     <li>an adapted {@link MethodHandle}, when no invoker can be generated for the handler, or when the listener's
+ *     class is in a named module that isn't open to the bot;</li>
+ *     <li>plain reflection through {@link DefaultEventExecutor}, for anything else.</li>
+ * </ol>
+ */
+public class EventExecutorFactory {
+    private static final MethodType invokedMethodType = MethodType.methodType(void.class, Event.class);
+    private static final MethodType genericHandleType =
+            MethodType.methodType(void.class, EventListener.class, Event.class);
+
+    /**
+     * Creates an executor for the specified handler method.
+     * @param listener listener instance the handler is bound to.
+     * @param priority priority of the handler.
+     * @param method handler method, accepting exactly one {@link Event} parameter.
+     * @return EventExecutor instance.
+     */
+    public EventExecutor createExecutor(EventListener listener, EventPriority priority, Method method) {
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = MethodHandles.privateLookupIn(method.getDeclaringClass(), MethodHandles.lookup());
+        } catch (IllegalAccessException | RuntimeException ex) {
+            lookup = null;
+        }
+
+        if (lookup != null) {
+            try {
+                return createLambdaExecutor(lookup, listener, priority, method);
+            } catch (Throwable ex) {
+                Logger.getGlobal().log(Level.FINE, "Cannot generate invoker for " + method.toGenericString() +
+                        "; falling back to method handle", ex);
+            }
+        }
+
+        try {
+            return createMethodHandleExecutor(lookup, listener, priority, method);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            Logger.getGlobal().log(Level.FINE, "Cannot unreflect " + method.toGenericString() +
+                    "; falling back to reflection", ex);
+        }
+
+        return new DefaultEventExecutor(listener, priority, method);
+    }
+
+    private static EventExecutor createLambdaExecutor(MethodHandles.Lookup lookup,
+                                                      EventListener listener,
+                                                      EventPriority priority,
+                                                      Method method) throws Throwable {
+        Class<?> listenerClass = method.getDeclaringClass();
+        MethodHandle implementation = lookup.unreflect(method);
+
+        CallSite callSite = LambdaMetafactory.metafactory(
+                lookup,
+                "invoke",
+                MethodType.methodType(LambdaEventExecutor.Invoker.class, listenerClass),
+                invokedMethodType,
+                implementation,
+                MethodType.methodType(void.class, method.getParameterTypes()[0])
+        );
+
+        LambdaEventExecutor.Invoker invoker = (LambdaEventExecutor.Invoker) callSite.getTarget().invoke(listener);
+
+        return new LambdaEventExecutor(listener, priority, invoker);
+    }
+
+    private static EventExecutor createMethodHandleExecutor(MethodHandles.Lookup lookup,
+                                                            EventListener listener,
+                                                            EventPriority priority,
+                                                            Method method) throws ReflectiveOperationException {
+        MethodHandle handle;
+
+        if (lookup != null) {
+            handle = lookup.unreflect(method);
+        } else {
+            method.setAccessible(true);
+            handle = MethodHandles.lookup().unreflect(method);
+        }
+
+        return new MethodHandleEventExecutor(listener, priority, handle.asType(genericHandleType));
+    }
+}
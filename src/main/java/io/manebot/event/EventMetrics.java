@@ -0,0 +1,137 @@
+package io.manebot.event;
+
+import com.google.common.collect.MapMaker;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Dispatch metrics of an event manager: invocation counts, failure counts and latency, per event class and per
+ * handler method.
+ *
+ * Metrics are only recorded while enabled; while disabled, dispatch costs a single volatile read per event.
+ */
+public final class EventMetrics {
+    private final ConcurrentMap<Class<?>, Statistics> events = new MapMaker().weakKeys().makeMap();
+    private final ConcurrentMap<String, Statistics> handlers = new ConcurrentHashMap<>();
+
+    private volatile boolean enabled;
+
+    public EventMetrics(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Gets statistics for every event class dispatched since metrics were enabled.
+     * @return immutable collection of statistics, one per concrete event class.
+     */
+    public Collection<Statistics> getEventStatistics() {
+        return Collections.unmodifiableList(new ArrayList<>(events.values()));
+    }
+
+    /**
+     * Gets statistics for an event class.
+     * @param eventClass concrete event class.
+     * @return Statistics instance, or null if no events of the class were recorded.
+     */
+    public Statistics getEventStatistics(Class<? extends Event> eventClass) {
+        return events.get(eventClass);
+    }
+
+    /**
+     * Gets statistics for every handler method registered since startup.
+     * @return immutable collection of statistics, one per handler method.
+     */
+    public Collection<Statistics> getHandlerStatistics() {
+        return Collections.unmodifiableList(new ArrayList<>(handlers.values()));
+    }
+
+    /**
+     * Gets statistics for a handler method.
+     * @param method handler method.
+     * @return Statistics instance, or null if the method was never registered.
+     */
+    public Statistics getHandlerStatistics(Method method) {
+        return handlers.get(getHandlerName(method));
+    }
+
+    /**
+     * Clears all recorded metrics.
+     */
+    public void reset() {
+        events.values().forEach(Statistics::reset);
+        handlers.values().forEach(Statistics::reset);
+    }
+
+    Statistics forEvent(Class<?> eventClass) {
+        return events.computeIfAbsent(eventClass, key -> new Statistics(key.getName()));
+    }
+
+    /**
+     * Gets the statistics of a handler method. Listeners of the same class share statistics, and a listener that is
+     * registered again (for example, by a reloaded plugin) continues where it left off.
+     */
+    Statistics forHandler(Method method) {
+        return handlers.computeIfAbsent(getHandlerName(method), Statistics::new);
+    }
+
+    private static String getHandlerName(Method method) {
+        return method.getDeclaringClass().getName() + "." + method.getName() +
+                "(" + method.getParameterTypes()[0].getSimpleName() + ")";
+    }
+
+    public static final class Statistics {
+        private final String name;
+        private final LongAdder failures = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        private Statistics(String name) {
+            this.name = name;
+        }
+
+        void record(long nanos, boolean failed) {
+            latency.record(nanos);
+            if (failed) failures.increment();
+        }
+
+        /**
+         * @return event class name, or handler method name qualified by its declaring class.
+         */
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return latency.getCount();
+        }
+
+        public long getFailures() {
+            return failures.sum();
+        }
+
+        /**
+         * @return latency histogram, in nanoseconds.
+         */
+        public LatencyHistogram getLatency() {
+            return latency;
+        }
+
+        private void reset() {
+            failures.reset();
+            latency.reset();
+        }
+    }
+}
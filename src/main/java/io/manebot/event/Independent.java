@@ -0,0 +1,19 @@
+package io.manebot.event;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks an {@link EventHandler} as independent of every other handler of the same event.
+ *
+ * Independent handlers are not ordered by priority; they are run in parallel on the event dispatch pool while the
+ * remaining handlers run in order on the dispatching thread. The event is complete once all of them have finished.
+ * Only mark a handler independent if it neither observes nor modifies state that other handlers of the event
+ * depend on (for example, cancellation).
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface Independent {
+}
@@ -0,0 +1,43 @@
+package io.manebot.event;
+
+/**
+ * Executes an event through an invoker generated by {@link EventExecutorFactory}.
+ */
+public class LambdaEventExecutor implements EventExecutor {
+    private final EventListener eventListener;
+    private final EventPriority eventPriority;
+    private final Invoker invoker;
+
+    public LambdaEventExecutor(EventListener eventListener, EventPriority eventPriority, Invoker invoker) {
+        this.eventListener = eventListener;
+        this.eventPriority = eventPriority;
+        this.invoker = invoker;
+    }
+
+    @Override
+    public void fire(Event event) throws EventExecutionException {
+        try {
+            invoker.invoke(event);
+        } catch (Exception e) {
+            throw new EventExecutionException(e);
+        }
+    }
+
+    @Override
+    public EventListener getListener() {
+        return eventListener;
+    }
+
+    @Override
+    public EventPriority getPriority() {
+        return eventPriority;
+    }
+
+    /**
+     * Functional interface implemented by generated invokers; each instance is bound to one listener.
+     */
+    @FunctionalInterface
+    public interface Invoker {
+        void invoke(Event event);
+    }
+}
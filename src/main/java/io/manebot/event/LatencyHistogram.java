@@ -0,0 +1,108 @@
+package io.manebot.event;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fixed-size, log-linear latency histogram.
+ *
+ * Values are nanoseconds. Every power of two is split into 16 linear sub-buckets, so any recorded value is reported
+ * within 6.25% of its true value. Values above {@link #maximumTrackableValue} (about 18 minutes) are clamped.
+ * Recording is lock-free and allocation-free; reads are not atomic with respect to concurrent recording.
+ */
+public final class LatencyHistogram {
+    private static final int subBucketBits = 4;
+    private static final int subBuckets = 1 << subBucketBits;
+    private static final int maximumExponent = 39;
+
+    public static final long maximumTrackableValue = (1L << (maximumExponent + 1)) - 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(indexOf(maximumTrackableValue) + 1);
+    private final LongAdder total = new LongAdder();
+    private final AtomicLong maximum = new AtomicLong();
+
+    /**
+     * Records a value.
+     * @param nanos value to record, in nanoseconds; negative values are treated as zero.
+     */
+    public void record(long nanos) {
+        long value = Math.min(Math.max(nanos, 0L), maximumTrackableValue);
+
+        counts.incrementAndGet(indexOf(value));
+        total.add(value);
+
+        for (long current = maximum.get(); value > current; current = maximum.get())
+            if (maximum.compareAndSet(current, value)) break;
+    }
+
+    public long getCount() {
+        long count = 0L;
+        for (int i = 0; i < counts.length(); i ++) count += counts.get(i);
+        return count;
+    }
+
+    public long getTotal() {
+        return total.sum();
+    }
+
+    public long getMaximum() {
+        return maximum.get();
+    }
+
+    public long getMean() {
+        long count = getCount();
+        return count == 0 ? 0L : getTotal() / count;
+    }
+
+    /**
+     * Gets the value at or below which the specified percentage of recorded values fall.
+     * @param percentile percentile, between 0 and 100.
+     * @return value, in nanoseconds; 0 if nothing was recorded.
+     */
+    public long getValueAtPercentile(double percentile) {
+        long[] snapshot = new long[counts.length()];
+        long count = 0L;
+
+        for (int i = 0; i < snapshot.length; i ++) count += (snapshot[i] = counts.get(i));
+        if (count == 0L) return 0L;
+
+        long target = Math.max(1L, (long) Math.ceil(Math.min(Math.max(percentile, 0D), 100D) / 100D * count));
+        long cumulative = 0L;
+
+        for (int i = 0; i < snapshot.length; i ++) {
+            cumulative += snapshot[i];
+            if (cumulative >= target) return Math.min(highestValueAt(i), getMaximum());
+        }
+
+        return getMaximum();
+    }
+
+    public void reset() {
+        for (int i = 0; i < counts.length(); i ++) counts.set(i, 0L);
+        total.reset();
+        maximum.set(0L);
+    }
+
+    private static int indexOf(long value) {
+        if (value < subBuckets) return (int) value;
+
+        int exponent = 63 - Long.numberOfLeadingZeros(value);
+        int shift = exponent - subBucketBits;
+
+        return (shift + 1) * subBuckets + (int) ((value >>> shift) & (subBuckets - 1));
+    }
+
+    private static long lowestValueAt(int index) {
+        if (index < subBuckets) return index;
+
+        int shift = index / subBuckets - 1;
+        long subBucket = index % subBuckets;
+
+        return (subBuckets + subBucket) << shift;
+    }
+
+    private static long highestValueAt(int index) {
+        return index < subBuckets ? index : lowestValueAt(index + 1) - 1;
+    }
+}
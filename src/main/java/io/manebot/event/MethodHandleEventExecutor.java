@@ -0,0 +1,41 @@
+package io.manebot.event;
+
+import java.lang.invoke.MethodHandle;
+
+/**
+ * Executes an event using a method handle adapted to <code>(EventListener, Event)void</code>.
+ */
+public class MethodHandleEventExecutor implements EventExecutor {
+    private final EventListener eventListener;
+    private final EventPriority eventPriority;
+    private final MethodHandle handle;
+
+    public MethodHandleEventExecutor(EventListener eventListener,
+                                     EventPriority eventPriority,
+                                     MethodHandle handle) {
+        this.eventListener = eventListener;
+        this.eventPriority = eventPriority;
+        this.handle = handle;
+    }
+
+    @Override
+    public void fire(Event event) throws EventExecutionException {
+        try {
+            handle.invokeExact(eventListener, event);
+        } catch (Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new EventExecutionException(e);
+        }
+    }
+
+    @Override
+    public EventListener getListener() {
+        return eventListener;
+    }
+
+    @Override
+    public EventPriority getPriority() {
+        return eventPriority;
+    }
+}
@@ -3,6 +3,7 @@ package io.manebot.platform;
 import io.manebot.database.Database;
 import io.manebot.plugin.Plugin;
 import io.manebot.plugin.PluginException;
+import org.hibernate.annotations.QueryHints;
 
 import java.sql.SQLException;
 import java.util.*;
@@ -15,37 +16,58 @@ public class DefaultPlatformManager implements PlatformManager {
 
     private final Object platformLock = new Object();
     private final Database systemDatabase;
-    private final HashSet<PlatformRegistration> registrations = new HashSet<>();
-    private final HashMap<Platform, PlatformRegistration> registrationMap = new LinkedHashMap<>();
-    private final HashMap<String, PlatformRegistration> registrationByNameMap = new LinkedHashMap<>();
+
+    /**
+     * Known platforms and current registrations. Writers replace the registry under the platform lock; lookups only
+     * ever read this reference.
+     */
+    private volatile PlatformRegistry registry = new PlatformRegistry(
+            Collections.emptyMap(),
+            Collections.emptyMap()
+    );
 
     public DefaultPlatformManager(Database systemDatabase) {
         this.systemDatabase = systemDatabase;
     }
 
+    /**
+     * Loads every platform from the database, replacing the known platforms.
+     */
+    public void load() {
+        synchronized (platformLock) {
+            Map<String, io.manebot.database.model.Platform> platforms = new LinkedHashMap<>();
+            for (io.manebot.database.model.Platform platform : queryPlatforms())
+                platforms.put(platform.getId(), platform);
+
+            registry = new PlatformRegistry(platforms, registry.registrations);
+        }
+    }
+
     @Override
     public PlatformRegistration registerPlatform(Consumer<Platform.Builder> consumer) {
         Builder builder = new Builder();
         consumer.accept(builder);
 
-        io.manebot.database.model.Platform platform = builder.getPlatform();
-        PlatformRegistration registration = builder.build();
+        synchronized (platformLock) {
+            io.manebot.database.model.Platform platform = builder.getPlatform();
+            PlatformRegistration registration = builder.build();
 
-        registrations.add(registration);
-        registrationMap.put(platform, registration);
-        registrationByNameMap.put(registration.getName(), registration);
+            Map<String, PlatformRegistration> registrations = new LinkedHashMap<>(registry.registrations);
+            registrations.put(registration.getName(), registration);
+            registry = new PlatformRegistry(registry.platforms, registrations);
 
-        platform.setRegistration(registration);
+            platform.setRegistration(registration);
 
-        return registration;
+            return registration;
+        }
     }
 
     @Override
     public void unregisterPlatform(PlatformRegistration platformRegistration) {
         synchronized (platformLock) {
-            if (registrations.remove(platformRegistration)) {
-                registrationMap.remove(platformRegistration.getPlatform());
-                registrationByNameMap.remove(platformRegistration.getName());
+            Map<String, PlatformRegistration> registrations = new LinkedHashMap<>(registry.registrations);
+            if (registrations.remove(platformRegistration.getName(), platformRegistration)) {
+                registry = new PlatformRegistry(registry.platforms, registrations);
 
                 // Fully unregister
                 if (platformRegistration.getPlatform() instanceof io.manebot.database.model.Platform)
@@ -66,37 +88,35 @@ public class DefaultPlatformManager implements PlatformManager {
 
     @Override
     public Collection<Platform> getPlatforms() {
-        return Collections.unmodifiableCollection(systemDatabase.execute(s -> {
-            return s.createQuery(
-                    "SELECT x FROM " + platformClass.getName() + " x",
-                    platformClass
-            ).getResultList()
-            .stream()
-                    .map(platform -> (Platform) platform)
-                    .collect(Collectors.toList());
-        }));
+        return Collections.unmodifiableCollection(registry.platforms.values());
     }
 
     @Override
     public io.manebot.database.model.Platform getPlatformById(String id) {
-        return systemDatabase.execute(s -> {
-            return s.createQuery(
-                    "SELECT x FROM " + platformClass.getName() + " x "
-                    + "WHERE x.id = :id",
-                    platformClass
-            )
-                    .setParameter("id", id)
-                    .getResultList()
-                    .stream()
-                    .findFirst()
-                    .orElse(null);
-        });
+        io.manebot.database.model.Platform platform = registry.platforms.get(id);
+        if (platform != null) return platform;
+
+        // Not known yet, possibly created elsewhere; read through and remember it.
+        platform = queryPlatformById(id);
+        if (platform == null) return null;
+
+        synchronized (platformLock) {
+            io.manebot.database.model.Platform existing = registry.platforms.get(id);
+            if (existing != null) return existing;
+
+            publish(platform);
+            return platform;
+        }
     }
 
     private io.manebot.database.model.Platform getOrCreatePlatformById(String id) {
         io.manebot.database.model.Platform platform = getPlatformById(id);
+        if (platform != null) return platform;
+
+        synchronized (platformLock) {
+            platform = registry.platforms.get(id);
+            if (platform != null) return platform;
 
-        if (platform == null)
             try {
                 platform = systemDatabase.executeTransaction(entityManager -> {
                     io.manebot.database.model.Platform newPlatform =
@@ -110,12 +130,49 @@ public class DefaultPlatformManager implements PlatformManager {
                 throw new RuntimeException(e);
             }
 
-        return platform;
+            publish(platform);
+            return platform;
+        }
+    }
+
+    /**
+     * Adds a platform to the known platforms. Must hold the platform lock.
+     */
+    private void publish(io.manebot.database.model.Platform platform) {
+        Map<String, io.manebot.database.model.Platform> platforms = new LinkedHashMap<>(registry.platforms);
+        platforms.put(platform.getId(), platform);
+        registry = new PlatformRegistry(platforms, registry.registrations);
+    }
+
+    private Collection<io.manebot.database.model.Platform> queryPlatforms() {
+        return systemDatabase.execute(s -> {
+            return s.createQuery(
+                    "SELECT x FROM " + platformClass.getName() + " x",
+                    platformClass
+            ).setHint(QueryHints.CACHEABLE, true)
+                    .getResultList();
+        });
+    }
+
+    private io.manebot.database.model.Platform queryPlatformById(String id) {
+        return systemDatabase.execute(s -> {
+            return s.createQuery(
+                    "SELECT x FROM " + platformClass.getName() + " x "
+                    + "WHERE x.id = :id",
+                    platformClass
+            )
+                    .setHint(QueryHints.CACHEABLE, true)
+                    .setParameter("id", id)
+                    .getResultList()
+                    .stream()
+                    .findFirst()
+                    .orElse(null);
+        });
     }
 
     @Override
     public Platform getPlatformByName(String name) {
-        PlatformRegistration registration = registrationByNameMap.get(name);
+        PlatformRegistration registration = registry.registrations.get(name);
         if (registration == null) return null;
 
         return registration.getPlatform();
@@ -124,7 +181,7 @@ public class DefaultPlatformManager implements PlatformManager {
     @Override
     public Collection<Platform> getPlatformsByPlugin(Plugin plugin) {
         return Collections.unmodifiableCollection(
-                registrations
+                registry.registrations.values()
                         .stream()
                         .filter(registration -> registration.getPlugin() == plugin)
                         .map(PlatformRegistration::getPlatform)
@@ -181,25 +238,40 @@ public class DefaultPlatformManager implements PlatformManager {
             return platform;
         }
 
+        /**
+         * Must hold the platform lock.
+         */
         private PlatformRegistration build() {
-            synchronized (platformLock) {
-                // Should never happen.
-                if (platform == null)
-                    throw new NullPointerException("platform");
-
-                if (platform.getRegistration() != null) {
-                    throw new IllegalStateException(
-                            "Platform is already registered to another Plugin: " +
-                                    platform.getRegistration().getPlugin().getArtifact().getIdentifier()
-                    );
-                }
-
-                return new DefaultPlatformRegistration(
-                        platform,
-                        this,
-                        getPlugin()
+            // Should never happen.
+            if (platform == null)
+                throw new NullPointerException("platform");
+
+            if (platform.getRegistration() != null) {
+                throw new IllegalStateException(
+                        "Platform is already registered to another Plugin: " +
+                                platform.getRegistration().getPlugin().getArtifact().getIdentifier()
                 );
             }
+
+            return new DefaultPlatformRegistration(
+                    platform,
+                    this,
+                    getPlugin()
+            );
+        }
+    }
+
+    /**
+     * Immutable snapshot of the known platforms and their registrations.
+     */
+    private static final class PlatformRegistry {
+        private final Map<String, io.manebot.database.model.Platform> platforms;
+        private final Map<String, PlatformRegistration> registrations;
+
+        private PlatformRegistry(Map<String, io.manebot.database.model.Platform> platforms,
+                                 Map<String, PlatformRegistration> registrations) {
+            this.platforms = Collections.unmodifiableMap(platforms);
+            this.registrations = Collections.unmodifiableMap(registrations);
         }
     }
 }
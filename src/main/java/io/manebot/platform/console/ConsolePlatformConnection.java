@@ -57,6 +57,13 @@ public class ConsolePlatformConnection implements PlatformConnection {
         LineReader reader = LineReaderBuilder.builder()
                 .terminal(terminal)
                 .variable(LineReader.SECONDARY_PROMPT_PATTERN, "%M%P > ")
+                .completer((lineReader, line, candidates) -> {
+                    // Every console line is a command, so the first word is always a label.
+                    if (line.wordIndex() != 0) return;
+
+                    for (String label : bot.getCommandManager().getLabels(line.word().toLowerCase()))
+                        candidates.add(new Candidate(label));
+                })
                 .build();
 
         VirtualProcess process = Virtual.getInstance().create(() -> {
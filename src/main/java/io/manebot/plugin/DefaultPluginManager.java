@@ -15,6 +15,7 @@ import io.manebot.plugin.loader.PluginLoader;
 import io.manebot.plugin.loader.PluginLoaderRegistry;
 import io.manebot.security.ElevationDispatcher;
 import org.apache.maven.artifact.versioning.DefaultArtifactVersion;
+import org.hibernate.annotations.QueryHints;
 
 import java.io.FileNotFoundException;
 import java.io.IOException;
@@ -92,6 +93,7 @@ public final class DefaultPluginManager implements PluginManager {
                             "WHERE x.packageId = :packageId and x.artifactId = :artifactId",
                     pluginClass
             )
+                    .setHint(QueryHints.CACHEABLE, true)
                     .setParameter("packageId", id.getPackageId())
                     .setParameter("artifactId", id.getArtifactId())
                     .getResultList()
@@ -167,7 +169,8 @@ public final class DefaultPluginManager implements PluginManager {
             return s.createQuery(
                     "SELECT x FROM " + pluginClass.getName() +" x ",
                     pluginClass
-            ).getResultList()
+            ).setHint(QueryHints.CACHEABLE, true)
+                    .getResultList()
                     .stream()
                     .map(this::getOrLoadRegistration)
                     .collect(Collectors.toList());
@@ -282,6 +285,7 @@ public final class DefaultPluginManager implements PluginManager {
                             "WHERE x.packageId = :packageId and x.artifactId = :artifactId and x.version = :version",
                     pluginClass
             )
+                    .setHint(QueryHints.CACHEABLE, true)
                     .setParameter("packageId", artifactIdentifier.getPackageId())
                     .setParameter("artifactId", artifactIdentifier.getArtifactId())
                     .setParameter("version", artifactIdentifier.getVersion())
@@ -5,9 +5,13 @@ import io.manebot.artifact.Artifact;
 import io.manebot.artifact.ArtifactDependency;
 import io.manebot.artifact.ManifestIdentifier;
 import io.manebot.command.CommandManager;
+import io.manebot.command.DefaultCommandManager;
 import io.manebot.command.executor.CommandExecutor;
+import io.manebot.database.AsyncDatabase;
 import io.manebot.database.Database;
 import io.manebot.database.DatabaseManager;
+import io.manebot.database.HibernateManager;
+import io.manebot.event.DefaultEventManager;
 import io.manebot.event.EventListener;
 import io.manebot.event.EventManager;
 import io.manebot.event.plugin.*;
@@ -19,6 +23,7 @@ import io.manebot.security.ElevationDispatcher;
 
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionException;
 import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.logging.Level;
@@ -332,6 +337,17 @@ public final class JavaPlugin implements Plugin, EventListener {
     }
 
     private void onEnable(Future future) throws PluginException {
+        // Wait for databases still being built in the background
+        for (Database database : databases) {
+            if (!(database instanceof AsyncDatabase)) continue;
+
+            try {
+                ((AsyncDatabase) database).getBuildFuture().join();
+            } catch (CompletionException e) {
+                throw new PluginException("Problem building database " + database.getName(), e.getCause());
+            }
+        }
+
         // Register & load platforms
         for (Consumer<Platform.Builder> consumer : platformBuilders) {
             PlatformRegistration registration = platformManager.registerPlatform(builder -> {
@@ -352,17 +368,27 @@ public final class JavaPlugin implements Plugin, EventListener {
             reference.load(future);
 
         // Register all commands
+        Map<String, CommandExecutor> executors = new LinkedHashMap<>();
         for (String command : commandExecutors.keySet())
-            registeredCommands.add(commandManager.registerExecutor(
-                    command,
-                    commandExecutors.get(command).apply(future)));
+            executors.put(command, commandExecutors.get(command).apply(future));
+
+        if (commandManager instanceof DefaultCommandManager)
+            registeredCommands.addAll(((DefaultCommandManager) commandManager).registerExecutors(executors));
+        else
+            for (Map.Entry<String, CommandExecutor> executor : executors.entrySet())
+                registeredCommands.add(commandManager.registerExecutor(executor.getKey(), executor.getValue()));
 
         // Register event listeners
-        for (Function<Future, EventListener> eventListenerFunction : eventListeners) {
-            EventListener eventListener = eventListenerFunction.apply(future);
-            eventManager.registerListener(eventListener);
-            registeredListeners.add(eventListener);
-        }
+        List<EventListener> listeners = new ArrayList<>(eventListeners.size());
+        for (Function<Future, EventListener> eventListenerFunction : eventListeners)
+            listeners.add(eventListenerFunction.apply(future));
+
+        if (eventManager instanceof DefaultEventManager)
+            ((DefaultEventManager) eventManager).registerListeners(listeners);
+        else
+            listeners.forEach(eventManager::registerListener);
+
+        registeredListeners.addAll(listeners);
 
         // Call all enables
         for (PluginFunction function : enable)
@@ -378,19 +404,26 @@ public final class JavaPlugin implements Plugin, EventListener {
         }
 
         // Unregister commands
-        Iterator<CommandManager.Registration> commandIterator = registeredCommands.iterator();
-        while (commandIterator.hasNext()) {
-            commandManager.unregisterExecutor(commandIterator.next().getLabel());
-            commandIterator.remove();
+        if (commandManager instanceof DefaultCommandManager) {
+            ((DefaultCommandManager) commandManager).unregisterExecutors(registeredCommands.stream()
+                    .map(CommandManager.Registration::getLabel)
+                    .collect(Collectors.toList()));
+            registeredCommands.clear();
+        } else {
+            Iterator<CommandManager.Registration> commandIterator = registeredCommands.iterator();
+            while (commandIterator.hasNext()) {
+                commandManager.unregisterExecutor(commandIterator.next().getLabel());
+                commandIterator.remove();
+            }
         }
 
         // Unregister event listeners
-        Iterator<EventListener> eventListenerIterator = registeredListeners.iterator();
-        while (eventListenerIterator.hasNext()) {
-            EventListener eventListener = eventListenerIterator.next();
-            eventManager.unregisterListener(eventListener);
-            eventListenerIterator.remove();
-        }
+        if (eventManager instanceof DefaultEventManager)
+            ((DefaultEventManager) eventManager).unregisterListeners(registeredListeners);
+        else
+            registeredListeners.forEach(eventManager::unregisterListener);
+
+        registeredListeners.clear();
 
         // Unregister platforms
         Iterator<Map.Entry<String, PlatformRegistration>> platformIterator =
@@ -551,10 +584,12 @@ public final class JavaPlugin implements Plugin, EventListener {
 
         @Override
         public Database addDatabase(String s, Consumer<Database.ModelConstructor> consumer) {
-            Database database = databaseManager.defineDatabase(
-                    getArtifact().getIdentifier().withoutVersion().toString().replace(".", "_") + "_" + s,
-                    consumer
-            );
+            String name = getArtifact().getIdentifier().withoutVersion().toString().replace(".", "_") + "_" + s;
+
+            // Build in the background, so other plugins can load meanwhile; the plugin waits for it when enabled.
+            Database database = databaseManager instanceof HibernateManager
+                    ? ((HibernateManager) databaseManager).defineDatabaseAsync(name, consumer)
+                    : databaseManager.defineDatabase(name, consumer);
 
             databases.add(database);
             return database;
@@ -0,0 +1,116 @@
+package io.manebot.security;
+
+import com.google.common.collect.MapMaker;
+import io.manebot.entity.Entity;
+import io.manebot.user.User;
+import io.manebot.user.UserGroup;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cache of permission decisions, so repeated checks don't walk a user's grants, or their groups' grants, each time.
+ *
+ * Decisions are those of {@link User#hasPermission(String)}, remembered per user and permission node, so cached and
+ * uncached checks always agree. Each user's decisions depend on the user's entity and the entities of their groups;
+ * they must be invalidated when grants on any of those entities, or the user's group memberships, change.
+ */
+public final class PermissionCache {
+    private final ConcurrentMap<User, Decisions> users = new MapMaker().weakKeys().makeMap();
+
+    /**
+     * Advanced by every invalidation, so decisions made while an invalidation happens are discarded.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * Finds if a user has a permission.
+     * @param user user.
+     * @param permission permission node.
+     * @return true if the permission is allowed.
+     */
+    public boolean hasPermission(User user, String permission) {
+        long generation = this.generation.get();
+
+        Decisions decisions = users.get(user);
+        if (decisions == null) {
+            decisions = new Decisions(user);
+
+            // Groups read across an invalidation may be stale, so such decisions aren't kept.
+            if (this.generation.get() == generation) {
+                Decisions existing = users.putIfAbsent(user, decisions);
+                if (existing != null) decisions = existing;
+            }
+        }
+
+        Boolean allowed = decisions.allowed.get(permission);
+        if (allowed != null) {
+            hits.increment();
+            return allowed;
+        }
+
+        misses.increment();
+        allowed = user.hasPermission(permission);
+
+        // So may a decision made across an invalidation.
+        if (this.generation.get() == generation) decisions.allowed.putIfAbsent(permission, allowed);
+
+        return allowed;
+    }
+
+    /**
+     * Forgets the decisions depending on an entity's grants, after they change: those of the user the entity belongs
+     * to, or of the members of the group it belongs to.
+     * @param entity entity.
+     */
+    public void invalidate(Entity entity) {
+        generation.incrementAndGet();
+        users.values().removeIf(decisions -> decisions.entities.contains(entity));
+    }
+
+    /**
+     * Forgets the decisions of a user, after their grants or groups change.
+     * @param user user.
+     */
+    public void invalidate(User user) {
+        generation.incrementAndGet();
+        users.remove(user);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        users.clear();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    private static final class Decisions {
+        /**
+         * Entities whose grants the decisions depend on: the user's, and their groups'.
+         */
+        private final Set<Entity> entities;
+        private final ConcurrentMap<String, Boolean> allowed = new ConcurrentHashMap<>();
+
+        private Decisions(User user) {
+            Set<Entity> entities = new HashSet<>();
+            entities.add(user.getEntity());
+            for (UserGroup group : user.getGroups()) entities.add(group.getEntity());
+
+            this.entities = Collections.unmodifiableSet(entities);
+        }
+    }
+}
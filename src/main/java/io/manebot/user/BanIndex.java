@@ -0,0 +1,109 @@
+package io.manebot.user;
+
+import io.manebot.database.Database;
+import io.manebot.database.EntityListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+
+/**
+ * In-memory index of the bans that have not yet ended, by username.
+ *
+ * The index is loaded once from the database and then kept current from the bans committed through it, however they
+ * are written, so looking up a user's ban doesn't touch the database. Entries are expired against each ban's end date
+ * as they are read.
+ */
+public final class BanIndex {
+    private final Database database;
+    private final ConcurrentMap<String, Entry> bans = new ConcurrentHashMap<>();
+
+    public BanIndex(Database database) {
+        this.database = database;
+    }
+
+    /**
+     * Replaces the contents of this index with the bans in the database that have not yet ended.
+     */
+    public void load() {
+        Map<String, Entry> current = database.execute(s -> {
+            Map<String, Entry> loaded = new HashMap<>();
+
+            for (io.manebot.database.model.UserBan ban : s.createQuery(
+                    "SELECT x FROM " + io.manebot.database.model.UserBan.class.getName() + " x " +
+                            "where x.end > :now",
+                    io.manebot.database.model.UserBan.class
+            ).setParameter("now", (int) (System.currentTimeMillis() / 1000)).getResultList()) {
+                // A user's latest ban is the one in effect.
+                loaded.merge(ban.getUser().getName(), new Entry(ban),
+                        (a, b) -> a.end >= b.end ? a : b);
+            }
+
+            return loaded;
+        });
+
+        bans.clear();
+        bans.putAll(current);
+    }
+
+    /**
+     * Gets the ban in effect for a user, including a ban that has been pardoned but has not yet ended.
+     * @param user user to look up.
+     * @return ban, or null if the user has no ban that has not yet ended.
+     */
+    public UserBan getBan(User user) {
+        Entry entry = bans.get(user.getName());
+        if (entry == null) return null;
+
+        if (entry.isExpired(System.currentTimeMillis())) {
+            bans.remove(user.getName(), entry);
+            return null;
+        }
+
+        return entry.ban;
+    }
+
+    /**
+     * Records a committed change to a ban, such as a new, pardoned, renewed or deleted ban.
+     * @param ban changed ban.
+     * @param change kind of change.
+     */
+    void onCommitted(io.manebot.database.model.UserBan ban, EntityListener.Change change) {
+        String username = ban.getUser().getName();
+        Entry entry = new Entry(ban);
+
+        if (change == EntityListener.Change.DELETED || entry.isExpired(System.currentTimeMillis()))
+            bans.computeIfPresent(username, (key, existing) -> existing.ban == ban ? null : existing);
+        else
+            bans.merge(username, entry, (a, b) -> a.ban != b.ban && a.end > b.end ? a : b);
+    }
+
+    /**
+     * Gets the bans that have not yet ended, latest end first.
+     * @return bans.
+     */
+    public Collection<UserBan> getCurrentBans() {
+        long now = System.currentTimeMillis();
+        bans.values().removeIf(entry -> entry.isExpired(now));
+
+        return Collections.unmodifiableList(bans.values().stream()
+                .sorted(Comparator.comparingLong((Entry entry) -> entry.end).reversed())
+                .map(entry -> entry.ban)
+                .collect(Collectors.toList()));
+    }
+
+    private static final class Entry {
+        private final UserBan ban;
+        private final long end;
+
+        private Entry(UserBan ban) {
+            this.ban = ban;
+            this.end = ban.getEnd().getTime();
+        }
+
+        private boolean isExpired(long now) {
+            return end <= now;
+        }
+    }
+}
@@ -1,12 +1,16 @@
 package io.manebot.user;
 
 import io.manebot.database.Database;
+import io.manebot.database.EntityListener;
+import io.manebot.database.HibernateManager;
 import io.manebot.database.expressions.ExtendedExpressions;
 import io.manebot.database.expressions.MatchMode;
 import io.manebot.database.model.Entity;
 import io.manebot.database.model.EntityType;
 import io.manebot.platform.Platform;
+import io.manebot.security.PermissionCache;
 import io.manebot.virtual.Virtual;
+import org.hibernate.annotations.QueryHints;
 
 import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
@@ -15,6 +19,7 @@ import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Properties;
 
 public final class DefaultUserManager implements UserManager {
     private static final Class<io.manebot.database.model.User> userClass
@@ -27,9 +32,104 @@ public final class DefaultUserManager implements UserManager {
             = io.manebot.database.model.UserAssociation.class;
 
     private final Database database;
+    private final BanIndex banIndex;
+    private final LastSeenTracker lastSeenTracker;
+    private final UserAssociationCache associationCache;
+    private final UserDirectory directory;
+    private final PermissionCache permissionCache = new PermissionCache();
 
-    public DefaultUserManager(Database database) {
+    /**
+     * @param database system database.
+     * @param properties user settings, read by {@link LastSeenTracker#fromProperties(Database, Properties)},
+     *                   {@link UserAssociationCache#fromProperties(Properties)} and
+     *                   {@link UserDirectory#fromProperties(Properties)}.
+     */
+    public DefaultUserManager(Database database, Properties properties) {
         this.database = database;
+        this.banIndex = new BanIndex(database);
+        this.lastSeenTracker = LastSeenTracker.fromProperties(database, properties);
+        this.associationCache = UserAssociationCache.fromProperties(properties);
+        this.directory = UserDirectory.fromProperties(properties);
+
+        // Flushed users were evicted from the entity caches; the directory swaps in their reloaded instances.
+        this.lastSeenTracker.setFlushListener(this::reloadUsers);
+
+        // Bans, users and groups are written by the model, by commands and by plugins alike; the index and the
+        // directory follow what is committed.
+        if (database.getDatabaseManager() instanceof HibernateManager) {
+            HibernateManager databaseManager = (HibernateManager) database.getDatabaseManager();
+            databaseManager.registerEntityListener(io.manebot.database.model.UserBan.class, banIndex::onCommitted);
+            databaseManager.registerEntityListener(userClass, this::onUserCommitted);
+            databaseManager.registerEntityListener(groupClass, this::onGroupCommitted);
+            databaseManager.registerEntityListener(userAssociationClass, associationCache::onCommitted);
+        }
+    }
+
+    public DefaultUserManager(Database database) {
+        this(database, new Properties());
+    }
+
+    /**
+     * Gets the index of bans that have not yet ended, kept current as bans are committed.
+     * @return ban index.
+     */
+    public BanIndex getBanIndex() {
+        return banIndex;
+    }
+
+    /**
+     * Gets the tracker that writes when users were last seen. Sightings should be recorded here instead of on the
+     * user, so they are written in batches.
+     * @return last seen tracker.
+     */
+    public LastSeenTracker getLastSeenTracker() {
+        return lastSeenTracker;
+    }
+
+    public UserAssociationCache getUserAssociationCache() {
+        return associationCache;
+    }
+
+    public UserDirectory getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Gets the cache of permission decisions. Code that changes grants or group memberships should invalidate it.
+     * @return permission cache.
+     */
+    public PermissionCache getPermissionCache() {
+        return permissionCache;
+    }
+
+    /**
+     * Loads every user and group into the directory, unless there are more users than it may hold.
+     */
+    public void loadDirectory() {
+        long users = database.execute(s -> {
+            return s.createQuery("select count(u) from " + userClass.getName() + " u", Long.class)
+                    .getSingleResult();
+        });
+
+        if (users <= directory.getMaximumSize())
+            directory.load(queryUsers(), queryUserGroups());
+    }
+
+    private void onUserCommitted(io.manebot.database.model.User user, EntityListener.Change change) {
+        if (change != EntityListener.Change.DELETED) {
+            directory.update(user);
+            return;
+        }
+
+        directory.remove(user);
+
+        // There may now be few enough users to hold them all again.
+        if (!directory.isComplete()) loadDirectory();
+    }
+
+    private void onGroupCommitted(io.manebot.database.model.Group group, EntityListener.Change change) {
+        if (change == EntityListener.Change.DELETED) directory.remove(group);
+        else directory.update(group);
     }
 
     @Override
@@ -56,6 +156,18 @@ public final class DefaultUserManager implements UserManager {
 
     @Override
     public User getUserByName(String username) {
+        return directory.getUserByName(username, this::queryUserByName);
+    }
+
+    private void reloadUsers(Collection<String> usernames) {
+        database.execute(s -> { return s
+                .createQuery("from " + userClass.getName() + " u where u.username in (:usernames)", userClass)
+                .setParameter("usernames", usernames)
+                .getResultList();
+        }).forEach(directory::update);
+    }
+
+    private User queryUserByName(String username) {
         return database.execute(s -> { return s
                 .createQuery("from " + User.class.getName() + " u " +
                         "where u.username = :username", User.class)
@@ -68,6 +180,10 @@ public final class DefaultUserManager implements UserManager {
 
     @Override
     public User getUserByDisplayName(String displayName) {
+        return directory.getUserByDisplayName(displayName, this::queryUserByDisplayName);
+    }
+
+    private User queryUserByDisplayName(String displayName) {
         return database.execute(s -> {
             CriteriaBuilder cb = s.getCriteriaBuilder();
             CriteriaQuery<io.manebot.database.model.User> criteriaQuery
@@ -97,18 +213,15 @@ public final class DefaultUserManager implements UserManager {
 
     @Override
     public Collection<UserBan> getCurrentBans() {
-        return Collections.unmodifiableCollection(database.execute(s -> {
-            return s.createQuery(
-                    "SELECT x FROM " + io.manebot.database.model.UserBan.class.getName() + " x " +
-                            "where x.end > :now " +
-                            "order by x.end desc",
-                    io.manebot.database.model.UserBan.class
-            ).setParameter("now", (int) (System.currentTimeMillis() / 1000)).getResultList();
-        }));
+        return banIndex.getCurrentBans();
     }
 
     @Override
     public Collection<User> getUsers() {
+        return directory.getUsers(this::queryUsers);
+    }
+
+    private Collection<User> queryUsers() {
         return database.execute(s -> { return new ArrayList<>(s
                 .createQuery("from " + userClass.getName(), userClass)
                 .getResultList());
@@ -131,8 +244,13 @@ public final class DefaultUserManager implements UserManager {
 
     @Override
     public UserGroup getUserGroupByName(String groupName) {
+        return directory.getUserGroupByName(groupName, this::queryUserGroupByName);
+    }
+
+    private UserGroup queryUserGroupByName(String groupName) {
         return database.execute(s -> { return s
                 .createQuery("from " + groupClass.getName() + " u where u.name = :name", groupClass)
+                .setHint(QueryHints.CACHEABLE, true)
                 .setParameter("name", groupName)
                 .getResultList()
                 .stream().findFirst().orElse(null);
@@ -141,8 +259,13 @@ public final class DefaultUserManager implements UserManager {
 
     @Override
     public Collection<UserGroup> getUserGroups() {
+        return directory.getUserGroups(this::queryUserGroups);
+    }
+
+    private Collection<UserGroup> queryUserGroups() {
         return database.execute(s -> { return new ArrayList<>(s
                 .createQuery("from " + groupClass.getName(), groupClass)
+                .setHint(QueryHints.CACHEABLE, true)
                 .getResultList());
         });
     }
@@ -180,8 +303,39 @@ public final class DefaultUserManager implements UserManager {
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * Associates a user with a platform-specific user ID.
+     * @param user user to associate.
+     * @param platform platform.
+     * @param id platform-specific user ID.
+     * @return created association.
+     */
+    public UserAssociation createAssociation(User user, Platform platform, String id) {
+        try {
+            return user.createAssociation(platform, id);
+        } finally {
+            associationCache.invalidate(platform.getId(), id);
+        }
+    }
+
+    /**
+     * Removes a user association.
+     * @param association association to remove.
+     */
+    public void removeAssociation(UserAssociation association) {
+        try {
+            association.remove();
+        } finally {
+            associationCache.invalidate(association.getPlatform().getId(), association.getPlatformId());
+        }
+    }
+
     @Override
     public UserAssociation getUserAssociation(Platform platform, String id) {
+        return associationCache.get(platform.getId(), id, () -> loadUserAssociation(platform, id));
+    }
+
+    private UserAssociation loadUserAssociation(Platform platform, String id) {
         return database.execute(s -> { return s
                 .createQuery(
                         "from " + userAssociationClass.getName() + " u " +
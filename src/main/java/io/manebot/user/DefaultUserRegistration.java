@@ -1,6 +1,5 @@
 package io.manebot.user;
 
-import io.manebot.Bot;
 import io.manebot.DefaultBot;
 import io.manebot.chat.ChatMessage;
 import io.manebot.chat.TextStyle;
@@ -12,9 +11,9 @@ import java.util.Arrays;
 import java.util.EnumSet;
 
 public class DefaultUserRegistration implements UserRegistration {
-    private final Bot bot;
+    private final DefaultBot bot;
 
-    public DefaultUserRegistration(Bot bot) {
+    public DefaultUserRegistration(DefaultBot bot) {
         this.bot = bot;
     }
 
@@ -46,7 +45,8 @@ public class DefaultUserRegistration implements UserRegistration {
                             ).setCallback((prompt) -> {
                                 User confirmedUser = prompt.getUser();
 
-                                confirmedUser.createAssociation(
+                                bot.getUserManager().createAssociation(
+                                        confirmedUser,
                                         chatMessage.getSender().getPlatformUser().getPlatform(),
                                         chatMessage.getSender().getPlatformUser().getId()
                                 );
@@ -80,9 +80,13 @@ public class DefaultUserRegistration implements UserRegistration {
                 user = bot.getUserManager().createUser(attemptedUsername, UserType.COMMON);
 
                 UserGroup userGroup = platform.getDefaultGroup();
-                if (userGroup != null) user.addGroup(userGroup);
+                if (userGroup != null) {
+                    user.addGroup(userGroup);
+                    bot.getUserManager().getPermissionCache().invalidate(user);
+                }
 
-                association = user.createAssociation(
+                association = bot.getUserManager().createAssociation(
+                        user,
                         chatMessage.getSender().getPlatformUser().getPlatform(),
                         chatMessage.getSender().getPlatformUser().getId()
                 );
@@ -0,0 +1,239 @@
+package io.manebot.user;
+
+import com.google.common.cache.CacheBuilder;
+import io.manebot.database.Database;
+import io.manebot.database.HibernateManager;
+
+import javax.persistence.PersistenceUnitUtil;
+import java.io.Serializable;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Write-behind tracker of when users were last seen.
+ *
+ * Sightings are kept in memory, where repeated sightings of a user replace each other, and are written to the
+ * database together once per flush interval and at shutdown. The flush interval is therefore also the longest time
+ * a sighting can be lost for if the process dies. Flushed users are evicted from the entity caches, since the bulk
+ * updates that write them bypass the caches.
+ */
+public final class LastSeenTracker {
+    private static final long defaultFlushInterval = 30L;
+    private static final long defaultWrittenSize = 10_000L;
+
+    private static final Class<io.manebot.database.model.User> userClass = io.manebot.database.model.User.class;
+
+    private final Database database;
+    private final long flushInterval;
+
+    /**
+     * Pending sightings by username.
+     */
+    private final ConcurrentMap<String, Sighting> pending = new ConcurrentHashMap<>();
+
+    /**
+     * Written sightings: username to epoch second. Instances of a flushed user loaded before the flush still have the
+     * old date; an entry is dropped once the user it is read for has the written date, or to stay within its bound.
+     */
+    private final ConcurrentMap<String, Integer> written;
+    private final Object flushLock = new Object();
+
+    private ScheduledFuture<?> flushTask;
+    private volatile Consumer<Collection<String>> flushListener = usernames -> { };
+
+    /**
+     * @param database system database.
+     * @param flushInterval seconds between flushes.
+     * @param writtenSize most written sightings to remember for users loaded before they were written.
+     */
+    public LastSeenTracker(Database database, long flushInterval, long writtenSize) {
+        if (flushInterval <= 0) throw new IllegalArgumentException("flushInterval");
+        if (writtenSize <= 0) throw new IllegalArgumentException("writtenSize");
+
+        this.database = database;
+        this.flushInterval = flushInterval;
+        this.written = CacheBuilder.newBuilder().maximumSize(writtenSize).<String, Integer>build().asMap();
+    }
+
+    public LastSeenTracker(Database database, long flushInterval) {
+        this(database, flushInterval, defaultWrittenSize);
+    }
+
+    public LastSeenTracker(Database database) {
+        this(database, defaultFlushInterval);
+    }
+
+    /**
+     * Reads a tracker's settings. Recognized properties: <code>lastseen.interval</code>, in seconds, and
+     * <code>lastseen.written.size</code>.
+     * @param database system database.
+     * @param properties property section to read.
+     * @return LastSeenTracker instance.
+     */
+    public static LastSeenTracker fromProperties(Database database, Properties properties) {
+        return new LastSeenTracker(
+                database,
+                Long.parseLong(properties.getProperty("lastseen.interval", Long.toString(defaultFlushInterval))),
+                Long.parseLong(properties.getProperty("lastseen.written.size", Long.toString(defaultWrittenSize)))
+        );
+    }
+
+    /**
+     * Sets the listener told which users each flush wrote, after they are evicted from the entity caches.
+     * @param flushListener listener, given the usernames flushed.
+     */
+    void setFlushListener(Consumer<Collection<String>> flushListener) {
+        this.flushListener = flushListener;
+    }
+
+    /**
+     * Starts flushing sightings periodically.
+     * @param executor executor to flush on.
+     */
+    public void start(ScheduledExecutorService executor) {
+        synchronized (flushLock) {
+            if (flushTask != null) throw new IllegalStateException("already started");
+            flushTask = executor.scheduleWithFixedDelay(
+                    this::flushQuietly,
+                    flushInterval,
+                    flushInterval,
+                    TimeUnit.SECONDS
+            );
+        }
+    }
+
+    /**
+     * Stops flushing periodically and flushes any pending sightings.
+     */
+    public void stop() {
+        synchronized (flushLock) {
+            if (flushTask != null) {
+                flushTask.cancel(false);
+                flushTask = null;
+            }
+        }
+
+        flushQuietly();
+    }
+
+    /**
+     * Records that a user was seen.
+     * @param user user that was seen.
+     * @param date date the user was seen.
+     */
+    public void seen(User user, Date date) {
+        pending.merge(user.getName(), new Sighting(user, (int) (date.getTime() / 1000L)), Sighting::latest);
+    }
+
+    /**
+     * Gets the date a user was last seen, including sightings that have not yet been written.
+     * @param user user to look up.
+     * @return date, or null if the user has never been seen.
+     */
+    public Date getLastSeenDate(User user) {
+        Sighting sighting = pending.get(user.getName());
+        Integer flushed = written.get(user.getName());
+
+        Integer seen = sighting == null ? null : sighting.second;
+        if (seen == null || (flushed != null && flushed > seen)) seen = flushed;
+        if (seen == null) return user.getLastSeenDate();
+
+        Date stored = user.getLastSeenDate();
+        if (stored != null && stored.getTime() / 1000L >= seen) {
+            // This instance was loaded after the flush; later loads will be too.
+            if (flushed != null) written.remove(user.getName(), flushed);
+            return stored;
+        }
+
+        return new Date(seen * 1000L);
+    }
+
+    /**
+     * @return number of users with sightings waiting to be written.
+     */
+    public int getPending() {
+        return pending.size();
+    }
+
+    public long getFlushInterval() {
+        return flushInterval;
+    }
+
+    /**
+     * Writes pending sightings to the database in one transaction. Users seen at the same second are updated by the
+     * same statement.
+     * @throws SQLException if the sightings could not be written; they are kept to be written by the next flush.
+     */
+    public void flush() throws SQLException {
+        synchronized (flushLock) {
+            Map<String, Sighting> flushing = new HashMap<>(pending);
+            if (flushing.isEmpty()) return;
+
+            Map<Integer, List<String>> bySecond = new HashMap<>();
+            flushing.forEach((username, sighting) ->
+                    bySecond.computeIfAbsent(sighting.second, key -> new ArrayList<>()).add(username));
+
+            List<Serializable> ids = new ArrayList<>(flushing.size());
+
+            database.executeTransaction(s -> {
+                for (Map.Entry<Integer, List<String>> entry : bySecond.entrySet())
+                    s.createQuery(
+                            "UPDATE " + userClass.getName() + " x " +
+                                    "set x.lastSeen = :lastSeen " +
+                                    "where x.username in (:usernames)"
+                    ).setParameter("lastSeen", entry.getKey())
+                            .setParameter("usernames", entry.getValue())
+                            .executeUpdate();
+
+                PersistenceUnitUtil persistenceUnitUtil = s.getEntityManagerFactory().getPersistenceUnitUtil();
+                for (Sighting sighting : flushing.values())
+                    if (userClass.isInstance(sighting.user))
+                        ids.add((Serializable) persistenceUnitUtil.getIdentifier(sighting.user));
+            });
+
+            // The updates bypassed the caches, which would otherwise keep returning the old dates.
+            if (database.getDatabaseManager() instanceof HibernateManager) {
+                HibernateManager databaseManager = (HibernateManager) database.getDatabaseManager();
+                for (Serializable id : ids) databaseManager.evictEntity(userClass, id);
+            }
+
+            // Keep any sighting that arrived while flushing.
+            flushing.forEach((username, sighting) -> {
+                written.merge(username, sighting.second, Math::max);
+                pending.remove(username, sighting);
+            });
+
+            flushListener.accept(Collections.unmodifiableSet(flushing.keySet()));
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Throwable e) {
+            Logger.getGlobal().log(Level.WARNING, "Problem writing last seen dates", e);
+        }
+    }
+
+    private static final class Sighting {
+        private final User user;
+        private final int second;
+
+        private Sighting(User user, int second) {
+            this.user = user;
+            this.second = second;
+        }
+
+        private static Sighting latest(Sighting a, Sighting b) {
+            return a.second >= b.second ? a : b;
+        }
+    }
+}
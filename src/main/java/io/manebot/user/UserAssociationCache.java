@@ -0,0 +1,180 @@
+package io.manebot.user;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import io.manebot.database.EntityListener;
+
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of user associations by platform and platform-specific user ID.
+ *
+ * Associations that exist are kept until they are evicted as least recently used or invalidated. Associations that
+ * don't exist are remembered for a short time, so repeated messages from unregistered users don't each query the
+ * database. The cache is invalidated as associations are committed, wherever they are created or removed.
+ */
+public final class UserAssociationCache {
+    private static final long defaultMaximumSize = 10_000L;
+    private static final long defaultNegativeTtl = 10L;
+
+    private final long maximumSize;
+    private final long negativeTtl;
+
+    private final Cache<Key, UserAssociation> associations;
+    private final Cache<Key, Boolean> missing;
+
+    /**
+     * Advanced by every invalidation, so associations loaded while an invalidation happens aren't kept.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    /**
+     * @param maximumSize maximum number of associations, and separately of missing associations, to remember.
+     * @param negativeTtl seconds to remember that an association doesn't exist.
+     */
+    public UserAssociationCache(long maximumSize, long negativeTtl) {
+        if (maximumSize <= 0) throw new IllegalArgumentException("maximumSize");
+        if (negativeTtl < 0) throw new IllegalArgumentException("negativeTtl");
+
+        this.maximumSize = maximumSize;
+        this.negativeTtl = negativeTtl;
+
+        this.associations = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .recordStats()
+                .build();
+
+        this.missing = CacheBuilder.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(negativeTtl, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+    }
+
+    public UserAssociationCache() {
+        this(defaultMaximumSize, defaultNegativeTtl);
+    }
+
+    /**
+     * Reads cache settings. Recognized properties: <code>association.cache</code> (maximum size) and
+     * <code>association.negative.ttl</code> (seconds).
+     * @param properties property section to read.
+     * @return UserAssociationCache instance.
+     */
+    public static UserAssociationCache fromProperties(Properties properties) {
+        return new UserAssociationCache(
+                Long.parseLong(properties.getProperty("association.cache", Long.toString(defaultMaximumSize))),
+                Long.parseLong(properties.getProperty("association.negative.ttl", Long.toString(defaultNegativeTtl)))
+        );
+    }
+
+    /**
+     * Gets an association, loading it on a miss.
+     * @param platformId platform ID.
+     * @param id platform-specific user ID.
+     * @param loader loads the association from the database; may return null.
+     * @return association, or null if there is none.
+     */
+    UserAssociation get(String platformId, String id, Supplier<UserAssociation> loader) {
+        Key key = new Key(platformId, id);
+
+        UserAssociation association = associations.getIfPresent(key);
+        if (association == null && missing.getIfPresent(key) == null) {
+            misses.increment();
+
+            long generation = this.generation.get();
+            association = loader.get();
+
+            // The association may have been read before a change committed, and invalidated since.
+            if (this.generation.get() == generation) {
+                if (association != null) associations.put(key, association);
+                else if (negativeTtl > 0) missing.put(key, Boolean.TRUE);
+            }
+        } else {
+            hits.increment();
+        }
+
+        return association;
+    }
+
+    /**
+     * Forgets what is known about an association, after it has been created or removed.
+     * @param platformId platform ID.
+     * @param id platform-specific user ID.
+     */
+    public void invalidate(String platformId, String id) {
+        generation.incrementAndGet();
+
+        Key key = new Key(platformId, id);
+        associations.invalidate(key);
+        missing.invalidate(key);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        associations.invalidateAll();
+        missing.invalidateAll();
+    }
+
+    void onCommitted(UserAssociation association, EntityListener.Change change) {
+        invalidate(association.getPlatform().getId(), association.getPlatformId());
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of entries evicted for size or, for missing associations, expired.
+     */
+    public long getEvictions() {
+        return associations.stats().evictionCount() + missing.stats().evictionCount();
+    }
+
+    public long getSize() {
+        return associations.size();
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getNegativeTtl() {
+        return negativeTtl;
+    }
+
+    private static final class Key {
+        private final String platformId;
+        private final String id;
+
+        private Key(String platformId, String id) {
+            this.platformId = platformId;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return platformId.equals(key.platformId) && id.equals(key.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(platformId, id);
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package io.manebot.user;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * In-memory directory of users and groups by name, and of users by display name.
+ *
+ * When there are no more users than the directory's maximum size, every user and group is loaded and all lookups,
+ * including display name prefix lookups, are answered from memory. Larger user bases only keep the most recently used
+ * users and groups by exact name, and look up everything else in the database, until there are few enough users to
+ * load them all again.
+ */
+public final class UserDirectory {
+    private static final long defaultMaximumSize = 100_000L;
+
+    private final Object writeLock = new Object();
+    private final long maximumSize;
+
+    /**
+     * Complete index, or null if the directory holds a bounded subset of users.
+     */
+    private volatile Index index;
+
+    private final Cache<String, User> recentUsers;
+    private final Cache<String, UserGroup> recentGroups;
+
+    public UserDirectory(long maximumSize) {
+        if (maximumSize <= 0) throw new IllegalArgumentException("maximumSize");
+
+        this.maximumSize = maximumSize;
+        this.recentUsers = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+        this.recentGroups = CacheBuilder.newBuilder().maximumSize(maximumSize).build();
+    }
+
+    public UserDirectory() {
+        this(defaultMaximumSize);
+    }
+
+    /**
+     * Reads directory settings. Recognized properties: <code>directory.size</code>.
+     * @param properties property section to read.
+     * @return UserDirectory instance.
+     */
+    public static UserDirectory fromProperties(Properties properties) {
+        return new UserDirectory(
+                Long.parseLong(properties.getProperty("directory.size", Long.toString(defaultMaximumSize)))
+        );
+    }
+
+    /**
+     * Loads every user and group, answering all further lookups from memory.
+     * @param users all users; must not be more than the maximum size.
+     * @param groups all groups.
+     */
+    void load(Collection<? extends User> users, Collection<? extends UserGroup> groups) {
+        if (users.size() > maximumSize) throw new IllegalArgumentException("users");
+
+        synchronized (writeLock) {
+            Index index = new Index();
+            users.forEach(index::put);
+            groups.forEach(group -> index.groups.put(group.getName(), group));
+
+            this.index = index;
+            recentUsers.invalidateAll();
+            recentGroups.invalidateAll();
+        }
+    }
+
+    /**
+     * @return true if every user and group is held in memory.
+     */
+    public boolean isComplete() {
+        return index != null;
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    User getUserByName(String username, Function<String, User> loader) {
+        Index index = this.index;
+        if (index != null) return index.users.get(username);
+
+        User user = recentUsers.getIfPresent(username);
+        if (user == null && (user = loader.apply(username)) != null)
+            recentUsers.put(username, user);
+
+        return user;
+    }
+
+    /**
+     * Finds a user by username, or else by the start of their display name, ignoring case.
+     */
+    User getUserByDisplayName(String displayName, Function<String, User> loader) {
+        Index index = this.index;
+        if (index == null) return loader.apply(displayName);
+
+        User user = index.users.get(displayName);
+        if (user != null) return user;
+
+        String prefix = displayName.toLowerCase();
+        Map.Entry<String, User> entry = index.displayNames.ceilingEntry(prefix);
+        return entry != null && entry.getKey().startsWith(prefix) ? entry.getValue() : null;
+    }
+
+    Collection<User> getUsers(Supplier<Collection<User>> loader) {
+        Index index = this.index;
+        if (index == null) return loader.get();
+
+        return Collections.unmodifiableList(new ArrayList<>(index.users.values()));
+    }
+
+    UserGroup getUserGroupByName(String name, Function<String, UserGroup> loader) {
+        Index index = this.index;
+        if (index != null) return index.groups.get(name);
+
+        UserGroup group = recentGroups.getIfPresent(name);
+        if (group == null && (group = loader.apply(name)) != null)
+            recentGroups.put(name, group);
+
+        return group;
+    }
+
+    Collection<UserGroup> getUserGroups(Supplier<Collection<UserGroup>> loader) {
+        Index index = this.index;
+        if (index == null) return loader.get();
+
+        return Collections.unmodifiableList(new ArrayList<>(index.groups.values()));
+    }
+
+    /**
+     * Records a user that was created or changed.
+     * @param user user.
+     */
+    void update(User user) {
+        synchronized (writeLock) {
+            Index index = this.index;
+            if (index == null) {
+                recentUsers.invalidate(user.getName());
+                return;
+            }
+
+            if (index.contains(user)) return;
+
+            if (!index.users.containsKey(user.getName()) && index.users.size() >= maximumSize) {
+                // Grown past the bound: keep a bounded subset until users are removed.
+                this.index = null;
+                return;
+            }
+
+            Index updated = index.copy();
+            updated.put(user);
+            this.index = updated;
+        }
+    }
+
+    /**
+     * Records a user that was deleted.
+     * @param user user.
+     */
+    void remove(User user) {
+        synchronized (writeLock) {
+            Index index = this.index;
+            if (index == null) {
+                recentUsers.invalidate(user.getName());
+                return;
+            }
+
+            if (!index.users.containsKey(user.getName())) return;
+
+            Index updated = index.copy();
+            updated.remove(user.getName());
+            this.index = updated;
+        }
+    }
+
+    /**
+     * Records a group that was created or changed.
+     * @param group group.
+     */
+    void update(UserGroup group) {
+        synchronized (writeLock) {
+            Index index = this.index;
+            if (index == null) {
+                recentGroups.invalidate(group.getName());
+                return;
+            }
+
+            if (index.groups.get(group.getName()) == group) return;
+
+            Index updated = index.copy();
+            updated.groups.put(group.getName(), group);
+            this.index = updated;
+        }
+    }
+
+    /**
+     * Records a group that was deleted.
+     * @param group group.
+     */
+    void remove(UserGroup group) {
+        synchronized (writeLock) {
+            Index index = this.index;
+            if (index == null) {
+                recentGroups.invalidate(group.getName());
+                return;
+            }
+
+            if (!index.groups.containsKey(group.getName())) return;
+
+            Index updated = index.copy();
+            updated.groups.remove(group.getName());
+            this.index = updated;
+        }
+    }
+
+    /**
+     * Index of all users and groups. Only modified before it is published.
+     */
+    private static final class Index {
+        private final Map<String, User> users = new LinkedHashMap<>();
+
+        /**
+         * Users by lower case display name, then username, separated by a NUL character so that users sharing a
+         * display name sort together.
+         */
+        private final NavigableMap<String, User> displayNames = new TreeMap<>();
+        private final Map<String, String> displayNameKeys = new HashMap<>();
+
+        private final Map<String, UserGroup> groups = new LinkedHashMap<>();
+
+        private static String displayNameKey(User user) {
+            String displayName = user.getDisplayName();
+            return displayName != null ? displayName.toLowerCase() + '\0' + user.getName() : null;
+        }
+
+        /**
+         * @return true if this index holds the user instance, under its current display name.
+         */
+        private boolean contains(User user) {
+            return users.get(user.getName()) == user &&
+                    Objects.equals(displayNameKeys.get(user.getName()), displayNameKey(user));
+        }
+
+        private void put(User user) {
+            remove(user.getName());
+
+            users.put(user.getName(), user);
+
+            String key = displayNameKey(user);
+            if (key != null) {
+                displayNames.put(key, user);
+                displayNameKeys.put(user.getName(), key);
+            }
+        }
+
+        private void remove(String username) {
+            users.remove(username);
+
+            String previousKey = displayNameKeys.remove(username);
+            if (previousKey != null) displayNames.remove(previousKey);
+        }
+
+        private Index copy() {
+            Index copy = new Index();
+            copy.users.putAll(users);
+            copy.displayNames.putAll(displayNames);
+            copy.displayNameKeys.putAll(displayNameKeys);
+            copy.groups.putAll(groups);
+            return copy;
+        }
+    }
+}
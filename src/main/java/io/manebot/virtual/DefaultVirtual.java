@@ -1,21 +1,55 @@
 package io.manebot.virtual;
 
 import io.manebot.security.Permission;
+import io.manebot.security.PermissionCache;
 import io.manebot.user.User;
 
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 public final class DefaultVirtual extends Virtual {
-    private final Set<VirtualProcess> processes = new HashSet<>();
-    private final Map<Thread, VirtualProcess> threadMap = new LinkedHashMap<>();
+    /**
+     * <code>Thread.ofVirtual().unstarted(Runnable)</code>, adapted to <code>(Runnable)Thread</code>; null when the
+     * running JVM has no virtual threads.
+     */
+    private static final MethodHandle newVirtualThread = findVirtualThreadConstructor();
+
+    // Processes register and unregister themselves from their own threads.
+    private final Set<VirtualProcess> processes = ConcurrentHashMap.newKeySet();
+    private final Map<Thread, VirtualProcess> threadMap = new ConcurrentHashMap<>();
     private final VirtualProcess root;
     private final Logger logger;
+    private final ThreadMode threadMode;
+    private final PermissionCache permissionCache;
 
     public DefaultVirtual(User currentUser) {
+        this(currentUser, ThreadMode.PLATFORM);
+    }
+
+    public DefaultVirtual(User currentUser, ThreadMode threadMode) {
+        this(currentUser, threadMode, null);
+    }
+
+    /**
+     * @param currentUser user of the root process.
+     * @param threadMode kind of threads backing processes.
+     * @param permissionCache cache consulted when checking whether processes may control each other, or null to
+     *                        check users' permissions directly.
+     */
+    public DefaultVirtual(User currentUser, ThreadMode threadMode, PermissionCache permissionCache) {
+        if (!threadMode.isSupported())
+            throw new UnsupportedOperationException(threadMode + " threads are not supported by this JVM");
+
         this.logger = Logger.getLogger("Virtual");
+        this.threadMode = threadMode;
+        this.permissionCache = permissionCache;
 
         logger.setParent(Logger.getGlobal());
         logger.setUseParentHandlers(true);
@@ -23,6 +57,59 @@ public final class DefaultVirtual extends Virtual {
         this.root = registerProcess(new DefaultVirtualProcess(null, currentUser));
     }
 
+    private static MethodHandle findVirtualThreadConstructor() {
+        try {
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+            MethodHandle ofVirtual = lookup.findStatic(
+                    Thread.class,
+                    "ofVirtual",
+                    MethodType.methodType(Class.forName("java.lang.Thread$Builder$OfVirtual"))
+            ).asType(MethodType.methodType(builderClass));
+
+            MethodHandle unstarted = lookup.findVirtual(
+                    builderClass,
+                    "unstarted",
+                    MethodType.methodType(Thread.class, Runnable.class)
+            );
+
+            // A builder per thread: builders themselves are not thread-safe.
+            return MethodHandles.foldArguments(unstarted, ofVirtual);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private boolean hasPermission(User user, String permission) {
+        return permissionCache != null ?
+                permissionCache.hasPermission(user, permission) :
+                user.hasPermission(permission);
+    }
+
+    /**
+     * Creates the (unstarted) thread backing a new process.
+     */
+    private Thread newProcessThread(Runnable runnable) {
+        switch (threadMode) {
+            case VIRTUAL:
+                try {
+                    return (Thread) newVirtualThread.invokeExact(runnable);
+                } catch (RuntimeException | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new IllegalStateException(e);
+                }
+            case PLATFORM:
+            default:
+                return new Thread(runnable);
+        }
+    }
+
+    public ThreadMode getThreadMode() {
+        return threadMode;
+    }
+
     private DefaultVirtualProcess registerProcess(DefaultVirtualProcess process) {
         processes.add(process);
         threadMap.put(process.thread, process);
@@ -78,6 +165,50 @@ public final class DefaultVirtual extends Virtual {
         return create(r).thread;
     }
 
+    /**
+     * Creates a thread factory for long-lived worker threads.  Each thread is a child process of the calling process,
+     * running as its user, and is described as <code>description-n</code>.
+     * @param description worker description.
+     * @return ThreadFactory instance.
+     * @throws SecurityException if the caller is not a virtual process.
+     */
+    public ThreadFactory newThreadFactory(String description) throws SecurityException {
+        VirtualProcess parent = currentProcess();
+        if (parent == null) throw new SecurityException("caller is not a process");
+
+        AtomicInteger counter = new AtomicInteger();
+
+        return r -> {
+            DefaultVirtualProcess process = create(parent, r);
+            process.description = description + "-" + counter.incrementAndGet();
+            process.updateName();
+            return process.thread;
+        };
+    }
+
+    /**
+     * Obtains a switch that lets the calling process change its user without further permission checks, for worker
+     * processes that run work on behalf of many users.
+     * @return UserSwitch bound to the calling process.
+     * @throws SecurityException if the caller is not a process, or its user may not change users.
+     */
+    public UserSwitch newUserSwitch() throws SecurityException {
+        DefaultVirtualProcess process = (DefaultVirtualProcess) currentProcess();
+        if (process == null) throw new SecurityException("caller is not a process");
+
+        Permission.checkPermission("system.process.changeuser");
+
+        return user -> {
+            if (!process.isCallerSelf()) throw new SecurityException("caller is not self");
+            if (user == null) throw new IllegalArgumentException("user", new NullPointerException());
+
+            if (process.user != user) {
+                process.user = user;
+                process.updateName();
+            }
+        };
+    }
+
     private class DefaultVirtualProcess implements VirtualProcess {
         private final VirtualProcess parent;
         private final Thread thread;
@@ -89,7 +220,7 @@ public final class DefaultVirtual extends Virtual {
 
         private DefaultVirtualProcess(VirtualProcess parent, Runnable runnable, User user) {
             this.parent = parent;
-            this.thread = new Thread(new Execution(this, runnable));
+            this.thread = newProcessThread(new Execution(this, runnable));
             this.profiler = new Profiler("root", null);
             this.user = user;
             this.description = thread.getName();
@@ -213,7 +344,7 @@ public final class DefaultVirtual extends Virtual {
 
             return current != null &&
                     current.getUser() != null &&
-                    current.getUser().hasPermission("system.process.controlany"); // not a direct parent
+                    hasPermission(current.getUser(), "system.process.controlany"); // not a direct parent
         }
 
         @Override
@@ -233,6 +364,22 @@ public final class DefaultVirtual extends Virtual {
         }
     }
 
+    public enum ThreadMode {
+        /**
+         * Each process runs on its own platform (operating system) thread.
+         */
+        PLATFORM,
+
+        /**
+         * Each process runs on a virtual thread (JDK 21 and later), which costs only as much stack as it is using.
+         */
+        VIRTUAL;
+
+        public boolean isSupported() {
+            return this != VIRTUAL || newVirtualThread != null;
+        }
+    }
+
     private final class Execution implements Runnable {
         private final Runnable runnable;
         private final DefaultVirtualProcess process;
@@ -0,0 +1,20 @@
+package io.manebot.virtual;
+
+import io.manebot.user.User;
+
+/**
+ * Capability to change the user of one process at will.
+ *
+ * {@link VirtualProcess#changeUser(User)} checks the permissions of the process's current user, so a process that
+ * has changed to an unprivileged user can't change back. A UserSwitch is checked once, when it is obtained, and can
+ * then only be used by the process that obtained it.
+ */
+@FunctionalInterface
+public interface UserSwitch {
+    /**
+     * Changes the user of the process that obtained this switch.
+     * @param user new user.
+     * @throws SecurityException if the caller is not the process that obtained this switch.
+     */
+    void changeUser(User user) throws SecurityException;
+}
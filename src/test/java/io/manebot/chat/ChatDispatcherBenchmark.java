@@ -0,0 +1,129 @@
+package io.manebot.chat;
+
+import io.manebot.event.DefaultEventManager;
+import io.manebot.event.EventHandler;
+import io.manebot.event.EventListener;
+import io.manebot.event.chat.ChatMessageReceivedEvent;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.reflect.Proxy;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Feeds synthetic chat lines that aren't commands through {@link DefaultChatDispatcher}. It covers three cases:
+ * nothing listening, listeners reached through the batcher, and one dispatch per message as before batching. Run
+ * with <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.manebot.chat.ChatDispatcherBenchmark</code>, or from an IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ChatDispatcherBenchmark {
+    private static final int lines = 1000;
+
+    private DefaultEventManager silentEventManager;
+    private DefaultChatDispatcher silentDispatcher;
+
+    private DefaultEventManager listenedEventManager;
+    private DefaultChatDispatcher listenedDispatcher;
+
+    private ChatMessage[] messages;
+    private final Future<?>[] futures = new Future<?>[lines];
+
+    @Setup
+    public void setup() {
+        silentEventManager = new DefaultEventManager();
+        silentDispatcher = new DefaultChatDispatcher(null, silentEventManager);
+
+        listenedEventManager = new DefaultEventManager();
+        listenedEventManager.registerListener(new CountingListener());
+        listenedDispatcher = new DefaultChatDispatcher(null, listenedEventManager);
+
+        // Chat lines, none of which are commands.
+        Chat chat = new NullChat() {
+            @Override
+            public ChatMessage parseCommand(ChatMessage message) {
+                return null;
+            }
+        };
+
+        ChatSender sender = (ChatSender) Proxy.newProxyInstance(
+                ChatSender.class.getClassLoader(),
+                new Class<?>[] { ChatSender.class },
+                (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getChat":
+                            return chat;
+                        case "getUsername":
+                        case "getDisplayName":
+                            return "user";
+                        default:
+                            return null;
+                    }
+                }
+        );
+
+        messages = new ChatMessage[lines];
+        for (int i = 0; i < lines; i++)
+            messages[i] = new BasicTextChatMessage(sender, "message " + i + " from a busy channel");
+    }
+
+    @TearDown
+    public void tearDown() {
+        silentEventManager.getDispatchPool().shutdown();
+        listenedEventManager.getDispatchPool().shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(lines)
+    public void noListeners() throws ExecutionException, InterruptedException {
+        for (int i = 0; i < lines; i++) futures[i] = silentDispatcher.executeAsync(messages[i]);
+        await();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(lines)
+    public void batched() throws ExecutionException, InterruptedException {
+        for (int i = 0; i < lines; i++) futures[i] = listenedDispatcher.executeAsync(messages[i]);
+        await();
+    }
+
+    /**
+     * What <code>DefaultChatDispatcher</code> did before batching: one event and one pool hand-off per message.
+     */
+    @Benchmark
+    @OperationsPerInvocation(lines)
+    public void perMessage() throws ExecutionException, InterruptedException {
+        for (int i = 0; i < lines; i++)
+            futures[i] = listenedEventManager.executeAsync(
+                    new ChatMessageReceivedEvent(listenedDispatcher, messages[i])
+            );
+        await();
+    }
+
+    private void await() throws ExecutionException, InterruptedException {
+        for (Future<?> future : futures) future.get();
+    }
+
+    public static class CountingListener implements EventListener {
+        private final LongAdder received = new LongAdder();
+
+        @EventHandler
+        public void onMessage(ChatMessageReceivedEvent event) {
+            received.increment();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ChatDispatcherBenchmark.class.getSimpleName()).build()).run();
+    }
+}
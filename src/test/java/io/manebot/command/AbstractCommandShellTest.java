@@ -0,0 +1,44 @@
+package io.manebot.command;
+
+import io.manebot.command.exception.CommandAccessException;
+import io.manebot.database.TestDatabases;
+import io.manebot.user.DefaultUserManager;
+import io.manebot.user.User;
+import io.manebot.user.UserBan;
+import io.manebot.user.UserType;
+import io.manebot.virtual.DefaultVirtual;
+import io.manebot.virtual.Virtual;
+import org.junit.Test;
+
+import java.util.Date;
+
+import static junit.framework.TestCase.fail;
+
+public class AbstractCommandShellTest {
+
+    @Test
+    public void testCheckBan_ModelBan() throws CommandAccessException {
+        DefaultUserManager userManager =
+                new DefaultUserManager(TestDatabases.createSystemDatabase("CheckBan_ModelBan"));
+
+        User root = userManager.createUser("root", UserType.SYSTEM);
+        Virtual.setInstance(new DefaultVirtual(root));
+
+        User user = userManager.createUser("user", UserType.COMMON);
+        AbstractCommandShell.checkBan(userManager.getBanIndex(), user);
+
+        // Banned through the model, as a plugin would, rather than through the ban command.
+        UserBan ban = user.ban("spamming", new Date(System.currentTimeMillis() + 60_000L));
+
+        try {
+            AbstractCommandShell.checkBan(userManager.getBanIndex(), user);
+            fail();
+        } catch (CommandAccessException expected) {
+            // The shell refuses the user's commands.
+        }
+
+        ban.pardon();
+        AbstractCommandShell.checkBan(userManager.getBanIndex(), user);
+    }
+
+}
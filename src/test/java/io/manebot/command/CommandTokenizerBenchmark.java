@@ -0,0 +1,79 @@
+package io.manebot.command;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link CommandTokenizer} with the regular expression splitting it replaced, on typical command lines and on
+ * hostile ones. Run with <code>mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=io.manebot.command.CommandTokenizerBenchmark</code>, or from an IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandTokenizerBenchmark {
+    @Param({ "typical", "quoted", "tabs", "spaces" })
+    public String input;
+
+    private String message;
+
+    @Setup
+    public void setup() {
+        switch (input) {
+            case "typical":
+                message = "ban someone 1d spamming links in the lobby";
+                break;
+            case "quoted":
+                message = "alias add greet \"say hello  world\" \"and \\\"welcome\\\"\"";
+                break;
+            case "tabs":
+                message = "say " + repeat("\t", 10000) + "x";
+                break;
+            case "spaces":
+                message = "say " + repeat("a ", 10000);
+                break;
+            default:
+                throw new IllegalArgumentException(input);
+        }
+    }
+
+    @Benchmark
+    public String[] tokenizer() {
+        return CommandTokenizer.tokenize(CommandTokenizer.firstLine(message));
+    }
+
+    /**
+     * The splitting <code>AbstractCommandShell.handleCommand</code> did before {@link CommandTokenizer}.
+     */
+    @Benchmark
+    public String[] regex() {
+        String message = this.message.split("\n")[0].trim();
+        message = message.replace("\t", "\0");
+        while (message.contains("\0\0")) message = message.replace("\0\0", "\0");
+
+        String[] labelAndArguments = message.split("[ ]", 2);
+        String[] arguments = labelAndArguments.length > 1 ? labelAndArguments[1].split("[ ]") : new String[0];
+
+        String[] tokens = new String[arguments.length + 1];
+        tokens[0] = labelAndArguments[0].toLowerCase();
+        System.arraycopy(arguments, 0, tokens, 1, arguments.length);
+        return tokens;
+    }
+
+    private static String repeat(String s, int count) {
+        StringBuilder builder = new StringBuilder(s.length() * count);
+        for (int i = 0; i < count; i++) builder.append(s);
+        return builder.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(CommandTokenizerBenchmark.class.getSimpleName()).build()).run();
+    }
+}
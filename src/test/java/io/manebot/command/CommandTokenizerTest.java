@@ -0,0 +1,53 @@
+package io.manebot.command;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static junit.framework.TestCase.assertEquals;
+
+public class CommandTokenizerTest {
+
+    @Test
+    public void testTokenize() {
+        assertArrayEquals(new String[] { "ban", "user", "spamming", "links" },
+                CommandTokenizer.tokenize("ban user spamming links"));
+
+        assertArrayEquals(new String[0], CommandTokenizer.tokenize(""));
+        assertArrayEquals(new String[0], CommandTokenizer.tokenize("   "));
+    }
+
+    @Test
+    public void testTokenize_Spaces() {
+        // Each space separates two tokens, as String.split(" ") always did.
+        assertArrayEquals(new String[] { "a", "", "b" }, CommandTokenizer.tokenize("a  b"));
+        assertArrayEquals(new String[] { "", "a" }, CommandTokenizer.tokenize(" a"));
+        assertArrayEquals(new String[] { "a", "b" }, CommandTokenizer.tokenize("a b  "));
+        assertArrayEquals(new String[] { "a\tb", "c" }, CommandTokenizer.tokenize("a\tb c"));
+
+        for (String line : new String[] { "help", "ban  user", "  ban user ", "alias add  a b   c" })
+            assertArrayEquals(line.split(" "), CommandTokenizer.tokenize(line));
+    }
+
+    @Test
+    public void testTokenize_Quoted() {
+        assertArrayEquals(new String[] { "say", "hello  world", "" },
+                CommandTokenizer.tokenize("say \"hello  world\" \"\""));
+
+        // Spaces around a quoted token still separate empty tokens.
+        assertArrayEquals(new String[] { "say", "", "hello  world" },
+                CommandTokenizer.tokenize("say  \"hello  world\""));
+
+        assertArrayEquals(new String[] { "say", "a \"quote\" \\" },
+                CommandTokenizer.tokenize("say \"a \\\"quote\\\" \\\\\""));
+
+        // Quotes only delimit whole tokens; anything else is literal.
+        assertArrayEquals(new String[] { "say", "it's", "5\"", "\"unterminated", "quote" },
+                CommandTokenizer.tokenize("say it's 5\" \"unterminated quote"));
+    }
+
+    @Test
+    public void testFirstLine() {
+        assertEquals("help", CommandTokenizer.firstLine("  help \r\nsecond line"));
+    }
+
+}
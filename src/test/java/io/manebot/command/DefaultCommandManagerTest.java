@@ -0,0 +1,138 @@
+package io.manebot.command;
+
+import io.manebot.command.executor.CommandExecutor;
+import org.junit.Test;
+
+import java.util.*;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertSame;
+import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
+
+public class DefaultCommandManagerTest {
+
+    @Test
+    public void testRegisterExecutors() {
+        DefaultCommandManager commandManager = new DefaultCommandManager();
+        TestExecutor ban = new TestExecutor(), help = new TestExecutor();
+
+        Map<String, CommandExecutor> executors = new LinkedHashMap<>();
+        executors.put("ban", ban);
+        executors.put("help", help);
+
+        List<CommandManager.Registration> registrations = commandManager.registerExecutors(executors);
+
+        assertEquals(2, registrations.size());
+        assertSame(ban, registrations.get(0).getExecutor());
+        assertSame(help, registrations.get(1).getExecutor());
+        assertSame(ban, commandManager.getExecutor("ban"));
+        assertSame(help, commandManager.getExecutor("help"));
+        assertNull(commandManager.getExecutor("he"));
+        assertEquals(2, commandManager.getRegistrations().size());
+    }
+
+    @Test
+    public void testRegisterExecutors_Duplicate() {
+        DefaultCommandManager commandManager = new DefaultCommandManager();
+        commandManager.registerExecutor("ban", new TestExecutor());
+
+        Map<String, CommandExecutor> executors = new LinkedHashMap<>();
+        executors.put("unban", new TestExecutor());
+        executors.put("ban", new TestExecutor());
+
+        try {
+            commandManager.registerExecutors(executors);
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // None of the executors are registered.
+            assertNull(commandManager.getExecutor("unban"));
+            assertEquals(1, commandManager.getRegistrations().size());
+        }
+    }
+
+    @Test
+    public void testUnregisterExecutors() {
+        DefaultCommandManager commandManager = new DefaultCommandManager();
+        TestExecutor help = new TestExecutor();
+
+        commandManager.registerExecutor("ban", new TestExecutor());
+        commandManager.registerExecutor("banlist", new TestExecutor());
+        commandManager.registerExecutor("help", help);
+
+        commandManager.unregisterExecutors(Arrays.asList("ban", "banlist", "missing"));
+
+        assertNull(commandManager.getExecutor("ban"));
+        assertNull(commandManager.getExecutor("banlist"));
+        assertSame(help, commandManager.getExecutor("help"));
+        assertTrue(commandManager.getLabels("ban").isEmpty());
+        assertEquals(1, commandManager.getRegistrations().size());
+    }
+
+    @Test
+    public void testGetLabels() {
+        DefaultCommandManager commandManager = new DefaultCommandManager();
+        for (String label : new String[] { "plugin", "ping", "ban", "banlist", "b" })
+            commandManager.registerExecutor(label, new TestExecutor());
+
+        assertEquals(Arrays.asList("b", "ban", "banlist"), commandManager.getLabels("b"));
+        assertEquals(Arrays.asList("ban", "banlist"), commandManager.getLabels("ban"));
+        assertEquals(Arrays.asList("ping", "plugin"), commandManager.getLabels("p"));
+        assertEquals(5, commandManager.getLabels("").size());
+        assertTrue(commandManager.getLabels("x").isEmpty());
+        assertTrue(commandManager.getLabels("banlists").isEmpty());
+    }
+
+    @Test
+    public void testCompleteLabel() {
+        DefaultCommandManager commandManager = new DefaultCommandManager();
+        for (String label : new String[] { "plugin", "ping", "ban", "banlist" })
+            commandManager.registerExecutor(label, new TestExecutor());
+
+        assertEquals("plugin", commandManager.completeLabel("pl"));
+        assertEquals("banlist", commandManager.completeLabel("banl"));
+        assertNull(commandManager.completeLabel("p"));
+        assertNull(commandManager.completeLabel("ban"));
+        assertNull(commandManager.completeLabel("x"));
+    }
+
+    @Test
+    public void testResolve() {
+        DefaultCommandManager commandManager = new DefaultCommandManager();
+        TestExecutor ban = new TestExecutor();
+        commandManager.registerExecutor("ban", ban);
+
+        DefaultCommandManager.Resolution resolution = commandManager.resolve("ban");
+        assertSame(ban, resolution.getExecutor());
+        assertSame(ban, resolution.getTarget());
+
+        String[] arguments = new String[] { "user" };
+        assertSame(arguments, resolution.getArguments(arguments));
+
+        assertNull(commandManager.resolve("unban"));
+    }
+
+    private static class TestExecutor implements CommandExecutor {
+        @Override
+        public void execute(CommandSender sender, String label, String[] args) {
+
+        }
+
+        @Override
+        public String getDescription() {
+            return null;
+        }
+
+        @Override
+        public List<String> getHelp(CommandSender sender, String label, String[] args) {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public boolean isBuffered() {
+            return false;
+        }
+    }
+
+}
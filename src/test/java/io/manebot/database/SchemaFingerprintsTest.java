@@ -0,0 +1,87 @@
+package io.manebot.database;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.persister.entity.AbstractEntityPersister;
+import org.junit.Test;
+
+import javax.persistence.*;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static junit.framework.TestCase.*;
+
+public class SchemaFingerprintsTest {
+
+    @Test
+    public void testBuild_UnchangedMappingSkipsUpdate() throws SQLException {
+        Properties properties = TestDatabases.createProperties("SchemaFingerprints_Unchanged");
+
+        HibernateManager first = new HibernateManager(null, properties);
+        dropTable(defineDatabase(first));
+        first.close();
+
+        // The mapping is unchanged, so the dropped table isn't created again.
+        HibernateManager second = new HibernateManager(null, properties);
+        assertFalse(hasTable(defineDatabase(second)));
+        second.close();
+    }
+
+    @Test
+    public void testBuild_ForceUpdate() throws SQLException {
+        Properties properties = TestDatabases.createProperties("SchemaFingerprints_Force");
+
+        HibernateManager first = new HibernateManager(null, properties);
+        dropTable(defineDatabase(first));
+        first.close();
+
+        properties.setProperty("schema.update.force", "true");
+
+        HibernateManager second = new HibernateManager(null, properties);
+        assertTrue(hasTable(defineDatabase(second)));
+        second.close();
+    }
+
+    private static Database defineDatabase(HibernateManager databaseManager) {
+        return databaseManager.defineDatabase("test", builder -> builder.registerEntity(TestRow.class));
+    }
+
+    private static void dropTable(Database database) throws SQLException {
+        database.executeTransaction(em -> {
+            AbstractEntityPersister persister = (AbstractEntityPersister) em.getEntityManagerFactory()
+                    .unwrap(SessionFactoryImplementor.class)
+                    .getMetamodel()
+                    .entityPersister(TestRow.class);
+
+            em.createNativeQuery("DROP TABLE " + persister.getTableName()).executeUpdate();
+        });
+    }
+
+    private static boolean hasTable(Database database) {
+        EntityManager em = database.openSession();
+
+        try {
+            em.find(TestRow.class, 1);
+            return true;
+        } catch (PersistenceException e) {
+            return false;
+        } finally {
+            em.close();
+        }
+    }
+
+    @javax.persistence.Entity
+    @Table()
+    public static class TestRow {
+        @Id
+        @GeneratedValue(strategy = GenerationType.IDENTITY)
+        @Column()
+        private int testId;
+
+        @Column()
+        private String name;
+
+        public TestRow() {
+
+        }
+    }
+}
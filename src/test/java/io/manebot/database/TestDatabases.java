@@ -0,0 +1,53 @@
+package io.manebot.database;
+
+import io.manebot.database.model.*;
+
+import java.util.Properties;
+
+/**
+ * In-memory databases for tests.
+ */
+public final class TestDatabases {
+    private TestDatabases() {
+
+    }
+
+    /**
+     * Creates the properties of an empty in-memory H2 database.
+     * @param name database name, unique to the test.
+     * @return Hibernate properties.
+     */
+    public static Properties createProperties(String name) {
+        Properties properties = new Properties();
+        properties.put("hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        properties.put("hibernate.connection.url", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        return properties;
+    }
+
+    /**
+     * Defines a system database, with the entities the bot registers, in an empty in-memory H2 database.
+     * @param name database name, unique to the test.
+     * @return system database.
+     */
+    public static io.manebot.database.Database createSystemDatabase(String name) {
+        HibernateManager databaseManager = new HibernateManager(null, createProperties(name));
+
+        return databaseManager.defineDatabase("system", model -> {
+            model.registerEntity(Plugin.class);
+            model.registerEntity(io.manebot.database.model.Database.class);
+            model.registerEntity(Entity.class);
+            model.registerEntity(Permission.class);
+            model.registerEntity(Group.class);
+            model.registerEntity(Platform.class);
+            model.registerEntity(User.class);
+            model.registerEntity(UserAssociation.class);
+            model.registerEntity(Conversation.class);
+            model.registerEntity(UserGroup.class);
+            model.registerEntity(PluginProperty.class);
+            model.registerEntity(UserBan.class);
+            model.registerEntity(Property.class);
+            model.registerEntity(Repository.class);
+            model.registerEntity(CommandAlias.class);
+        });
+    }
+}
@@ -0,0 +1,29 @@
+package io.manebot.database;
+
+import org.junit.Test;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertNull;
+import static junit.framework.TestCase.assertSame;
+
+public class TieredEntityCacheTest {
+
+    @Test
+    public void testGet_EvictedButReferenced() {
+        TieredEntityCache cache = new TieredEntityCache(1);
+        Object first = new Object();
+        Object second = new Object();
+
+        cache.put(1, first);
+        cache.put(2, second);
+        assertEquals(1, cache.getSize());
+
+        // No longer held strongly, but still referenced here, so the same instance is found.
+        assertSame(first, cache.get(1));
+        assertEquals(1, cache.getWeakHits());
+        assertSame(second, cache.get(2));
+
+        cache.invalidate(1);
+        assertNull(cache.get(1));
+    }
+}
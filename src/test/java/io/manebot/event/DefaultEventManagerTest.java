@@ -2,12 +2,19 @@ package io.manebot.event;
 
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
 import static junit.framework.TestCase.assertTrue;
+import static junit.framework.TestCase.fail;
 
 public class DefaultEventManagerTest {
 
@@ -44,6 +51,213 @@ public class DefaultEventManagerTest {
         assertTrue(accepted[0]);
     }
 
+    @Test
+    public void testExecute_Supertype() {
+        DefaultEventManager eventManager = new DefaultEventManager();
+        final boolean[] accepted = new boolean[1];
+
+        eventManager.registerListener(new EventListener() {
+            @EventHandler
+            public void onEvent(Event event) {
+                accepted[0] = true;
+            }
+        });
+
+        eventManager.execute(new TestEvent(this));
+        assertTrue(accepted[0]);
+    }
+
+    @Test
+    public void testExecute_Priority() {
+        DefaultEventManager eventManager = new DefaultEventManager();
+        List<String> fired = new ArrayList<>();
+
+        // Registered in reverse declaration order; dispatch must follow declaration order.
+        eventManager.registerListener(new EventListener() {
+            @EventHandler(priority = EventPriority.HIGHEST)
+            public void onTestEvent(TestEvent event) {
+                fired.add("highest");
+            }
+        });
+
+        // Equal priorities are dispatched in registration order.
+        eventManager.registerListener(new EventListener() {
+            @EventHandler(priority = EventPriority.NORMAL)
+            public void onEvent(Event event) {
+                fired.add("normal 1");
+            }
+        });
+
+        eventManager.registerListener(new EventListener() {
+            @EventHandler(priority = EventPriority.NORMAL)
+            public void onTestEvent(TestEvent event) {
+                fired.add("normal 2");
+            }
+        });
+
+        eventManager.registerListener(new EventListener() {
+            @EventHandler(priority = EventPriority.LOWEST)
+            public void onEvent(Event event) {
+                fired.add("lowest");
+            }
+        });
+
+        eventManager.execute(new TestEvent(this));
+
+        assertEquals(Arrays.asList("lowest", "normal 1", "normal 2", "highest"), fired);
+    }
+
+    @Test
+    public void testUnregister() {
+        DefaultEventManager eventManager = new DefaultEventManager();
+        final int[] accepted = new int[1];
+        TestListener listener = new TestListener(fired -> accepted[0]++);
+
+        eventManager.registerListener(listener);
+        eventManager.execute(new TestEvent(this));
+        eventManager.unregisterListener(listener);
+        eventManager.execute(new TestEvent(this));
+
+        assertEquals(1, accepted[0]);
+    }
+
+    @Test
+    public void testHasListeners() {
+        DefaultEventManager eventManager = new DefaultEventManager();
+        TestListener listener = new TestListener(fired -> { });
+
+        assertFalse(eventManager.hasListeners(TestEvent.class));
+
+        eventManager.registerListener(listener);
+        assertTrue(eventManager.hasListeners(TestEvent.class));
+
+        eventManager.unregisterListener(listener);
+        assertFalse(eventManager.hasListeners(TestEvent.class));
+
+        // Listeners of a supertype count too.
+        eventManager.registerListener(new EventListener() {
+            @EventHandler
+            public void onEvent(Event event) { }
+        });
+        assertTrue(eventManager.hasListeners(TestEvent.class));
+    }
+
+    @Test
+    public void testUnregister_Bulk() {
+        DefaultEventManager eventManager = new DefaultEventManager();
+        final int[] accepted = new int[1];
+
+        EventListener first = new EventListener() {
+            @EventHandler
+            public void onEvent(Event event) {
+                accepted[0]++;
+            }
+
+            @EventHandler
+            public void onTestEvent(TestEvent event) {
+                accepted[0]++;
+            }
+        };
+
+        TestListener second = new TestListener(fired -> accepted[0]++);
+
+        eventManager.registerListeners(Arrays.asList(first, second));
+        eventManager.execute(new TestEvent(this));
+        assertEquals(3, accepted[0]);
+
+        eventManager.unregisterListeners(Arrays.asList(first, second));
+        eventManager.execute(new TestEvent(this));
+        assertEquals(3, accepted[0]);
+    }
+
+    @Test
+    public void testExecute_Independent() {
+        DefaultEventManager eventManager = new DefaultEventManager();
+        CountDownLatch latch = new CountDownLatch(2);
+        final boolean[] ordered = new boolean[1];
+
+        // Each independent handler waits for the other, so they only complete if they run in parallel.
+        for (int i = 0; i < 2; i ++) {
+            eventManager.registerListener(new EventListener() {
+                @EventHandler
+                @Independent
+                public void onTestEvent(TestEvent event) throws InterruptedException {
+                    latch.countDown();
+                    assertTrue(latch.await(10, TimeUnit.SECONDS));
+                }
+            });
+        }
+
+        eventManager.registerListener(new TestListener(fired -> ordered[0] = true));
+
+        eventManager.execute(new TestEvent(this));
+
+        assertEquals(0, latch.getCount());
+        assertTrue(ordered[0]);
+    }
+
+    @Test
+    public void testExecute_IndependentFailsWithOrdered() throws InterruptedException {
+        DefaultEventManager eventManager = new DefaultEventManager();
+        CountDownLatch started = new CountDownLatch(1);
+
+        eventManager.registerListener(new EventListener() {
+            @EventHandler
+            @Independent
+            public void onTestEvent(TestEvent event) {
+                started.countDown();
+                throw new IllegalArgumentException("independent");
+            }
+        });
+
+        // Fails once the independent handler is running, so it is waited for rather than cancelled.
+        eventManager.registerListener(new TestListener(fired -> {
+            try {
+                assertTrue(started.await(10, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+
+            throw new IllegalStateException("ordered");
+        }));
+
+        try {
+            eventManager.execute(new TestEvent(this));
+            fail();
+        } catch (EventExecutionException expected) {
+            assertEquals(1, expected.getSuppressed().length);
+        }
+    }
+
+    @Test
+    public void testMetrics() {
+        DefaultEventManager eventManager = new DefaultEventManager();
+        eventManager.getMetrics().setEnabled(true);
+
+        eventManager.registerListener(new TestListener(fired -> { }));
+        eventManager.registerListener(new TestListener(fired -> {
+            throw new IllegalStateException();
+        }));
+
+        try {
+            eventManager.execute(new TestEvent(this));
+        } catch (EventExecutionException expected) {
+            // second listener
+        }
+
+        EventMetrics.Statistics eventStatistics = eventManager.getMetrics().getEventStatistics(TestEvent.class);
+        assertEquals(1, eventStatistics.getCount());
+        assertEquals(1, eventStatistics.getFailures());
+
+        // Both listeners share the handler method.
+        assertEquals(1, eventManager.getMetrics().getHandlerStatistics().size());
+        EventMetrics.Statistics handlerStatistics = eventManager.getMetrics().getHandlerStatistics().iterator().next();
+        assertEquals(2, handlerStatistics.getCount());
+        assertEquals(1, handlerStatistics.getFailures());
+        assertTrue(handlerStatistics.getLatency().getMaximum() >=
+                handlerStatistics.getLatency().getValueAtPercentile(50D));
+    }
+
     private static class TestListener implements EventListener {
         private final Consumer<TestEvent> eventConsumer;
 
@@ -0,0 +1,58 @@
+package io.manebot.event;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static junit.framework.TestCase.assertEquals;
+import static junit.framework.TestCase.assertFalse;
+import static junit.framework.TestCase.assertTrue;
+
+public class EventDispatchPoolTest {
+
+    @Test
+    public void testDropOldest() throws Exception {
+        EventDispatchPool pool = new EventDispatchPool(
+                1, 1,
+                EventDispatchPool.OverflowPolicy.DROP_OLDEST,
+                runnable -> {
+                    Thread thread = new Thread(runnable);
+                    thread.setDaemon(true);
+                    return thread;
+                }
+        );
+
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        // Occupy the only worker, so later events queue.
+        pool.execute(() -> {
+            running.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        assertTrue(running.await(10, TimeUnit.SECONDS));
+
+        // Offered tasks are dropped like any other, but not cancelled: whoever offered them runs them.
+        FutureTask<Void> offered = new FutureTask<>(() -> { }, null);
+        pool.offer(offered);
+
+        Future<Boolean> oldest = pool.submit(() -> true);
+        assertFalse(offered.isCancelled());
+        assertEquals(1, pool.getDropped());
+
+        Future<Boolean> newest = pool.submit(() -> true);
+        assertTrue(oldest.isCancelled());
+        assertFalse(newest.isCancelled());
+        assertEquals(2, pool.getDropped());
+
+        release.countDown();
+        pool.shutdown();
+    }
+}
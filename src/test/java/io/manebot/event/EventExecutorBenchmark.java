@@ -0,0 +1,87 @@
+package io.manebot.event;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the executors {@link EventExecutorFactory} can bind a handler to: a generated
+ * {@link LambdaEventExecutor}, an adapted {@link MethodHandleEventExecutor}, and reflective
+ * <code>Method.invoke</code> through {@link DefaultEventExecutor}. Run with <code>mvn test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=io.manebot.event.EventExecutorBenchmark</code>, or from an IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EventExecutorBenchmark {
+    private final CountingListener listener = new CountingListener();
+    private final Event event = new BenchmarkEvent(this);
+
+    private EventExecutor lambda;
+    private EventExecutor methodHandle;
+    private EventExecutor reflection;
+
+    @Setup
+    public void setup() throws ReflectiveOperationException {
+        Method method = CountingListener.class.getMethod("onEvent", BenchmarkEvent.class);
+
+        lambda = new EventExecutorFactory().createExecutor(listener, EventPriority.NORMAL, method);
+        if (!(lambda instanceof LambdaEventExecutor))
+            throw new IllegalStateException("expected a generated invoker, got " + lambda.getClass().getName());
+
+        methodHandle = new MethodHandleEventExecutor(
+                listener,
+                EventPriority.NORMAL,
+                MethodHandles.lookup().unreflect(method)
+                        .asType(MethodType.methodType(void.class, EventListener.class, Event.class))
+        );
+
+        reflection = new DefaultEventExecutor(listener, EventPriority.NORMAL, method);
+    }
+
+    @Benchmark
+    public long lambda() throws EventExecutionException {
+        lambda.fire(event);
+        return listener.received;
+    }
+
+    @Benchmark
+    public long methodHandle() throws EventExecutionException {
+        methodHandle.fire(event);
+        return listener.received;
+    }
+
+    @Benchmark
+    public long reflection() throws EventExecutionException {
+        reflection.fire(event);
+        return listener.received;
+    }
+
+    public static class BenchmarkEvent extends Event {
+        public BenchmarkEvent(Object sender) {
+            super(sender);
+        }
+    }
+
+    public static class CountingListener implements EventListener {
+        private long received;
+
+        @EventHandler
+        public void onEvent(BenchmarkEvent event) {
+            received++;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(EventExecutorBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,102 @@
+package io.manebot.security;
+
+import io.manebot.database.TestDatabases;
+import io.manebot.user.DefaultUserManager;
+import io.manebot.user.User;
+import io.manebot.user.UserGroup;
+import io.manebot.user.UserType;
+import io.manebot.virtual.DefaultVirtual;
+import io.manebot.virtual.Virtual;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link PermissionCache} with uncached {@link User#hasPermission(String)}, for a user belonging to several
+ * groups, each granting a tree of nodes several levels deep. Run with <code>mvn test-compile exec:java
+ * -Dexec.classpathScope=test -Dexec.mainClass=io.manebot.security.PermissionCacheBenchmark</code>, or from an IDE.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PermissionCacheBenchmark {
+    @Param({ "1", "4", "16" })
+    public int groups;
+
+    @Param({ "2", "5" })
+    public int depth;
+
+    private User user;
+    private PermissionCache cache;
+    private String[] nodes;
+    private int next;
+
+    @Setup
+    public void setup() {
+        DefaultUserManager userManager = new DefaultUserManager(TestDatabases.createSystemDatabase(
+                "PermissionCacheBenchmark_" + groups + "_" + depth
+        ));
+
+        User root = userManager.createUser("root", UserType.SYSTEM);
+        Virtual.setInstance(new DefaultVirtual(root));
+
+        user = userManager.createUser("user", UserType.COMMON);
+        user.getEntity().setPermission("system.user.info", Grant.ALLOW);
+        user.getEntity().setPermission("plugin0.*", Grant.DENY);
+
+        List<String> nodes = new ArrayList<>();
+
+        for (int i = 0; i < groups; i++) {
+            UserGroup group = userManager.createUserGroup("group" + i);
+            group.addUser(user);
+
+            // plugin<i>.*, plugin<i>.level1.* ... granted alternately, with a leaf overriding the deepest wildcard.
+            StringBuilder node = new StringBuilder("plugin" + i);
+            for (int level = 1; level <= depth; level++) {
+                group.getEntity().setPermission(node + ".*", level % 2 == 1 ? Grant.ALLOW : Grant.DENY);
+                node.append(".level").append(level);
+                nodes.add(node.toString());
+            }
+
+            group.getEntity().setPermission(node + ".leaf", depth % 2 == 1 ? Grant.DENY : Grant.ALLOW);
+            nodes.add(node + ".leaf");
+            nodes.add(node + ".other");
+        }
+
+        // A node granted to the user itself, and nodes granted to nobody.
+        nodes.add("system.user.info");
+        nodes.add("system.stop");
+        nodes.add("unknown.plugin.command");
+
+        this.nodes = nodes.toArray(new String[0]);
+        this.cache = new PermissionCache();
+    }
+
+    private String nextNode() {
+        String node = nodes[next];
+        next = (next + 1) % nodes.length;
+        return node;
+    }
+
+    @Benchmark
+    public boolean cached() {
+        return cache.hasPermission(user, nextNode());
+    }
+
+    @Benchmark
+    public boolean uncached() {
+        return user.hasPermission(nextNode());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(PermissionCacheBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,54 @@
+package io.manebot.security;
+
+import io.manebot.database.TestDatabases;
+import io.manebot.user.DefaultUserManager;
+import io.manebot.user.User;
+import io.manebot.user.UserType;
+import org.junit.Test;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class PermissionCacheTest {
+    private static final String[] nodes = {
+            "a", "a.b", "a.b.c", "a.b.c.d", "a.bc", "x", "x.y", "system.user.ban", "*"
+    };
+
+    @Test
+    public void testHasPermission_MatchesUncached() {
+        DefaultUserManager userManager =
+                new DefaultUserManager(TestDatabases.createSystemDatabase("PermissionCache_MatchesUncached"));
+        PermissionCache cache = new PermissionCache();
+
+        User user = userManager.createUser("user", UserType.COMMON);
+        User other = userManager.createUser("other", UserType.COMMON);
+
+        user.getEntity().setPermission("a.*", Grant.ALLOW);
+        user.getEntity().setPermission("a.b.c", Grant.DENY);
+        other.getEntity().setPermission("x.y", Grant.ALLOW);
+
+        assertMatches(cache, user);
+        assertMatches(cache, other);
+
+        // Answered from the cache, the same way.
+        long misses = cache.getMisses();
+        assertMatches(cache, user);
+        assertEquals(misses, cache.getMisses());
+
+        user.getEntity().removePermission("a.b.c");
+        user.getEntity().setPermission("x.*", Grant.ALLOW);
+        cache.invalidate(user.getEntity());
+
+        assertMatches(cache, user);
+
+        // Only the decisions depending on the changed entity are forgotten.
+        misses = cache.getMisses();
+        assertMatches(cache, other);
+        assertEquals(misses, cache.getMisses());
+    }
+
+    private static void assertMatches(PermissionCache cache, User user) {
+        for (String node : nodes)
+            assertEquals(node, user.hasPermission(node), cache.hasPermission(user, node));
+    }
+
+}
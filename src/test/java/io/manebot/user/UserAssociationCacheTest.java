@@ -0,0 +1,36 @@
+package io.manebot.user;
+
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static junit.framework.TestCase.assertEquals;
+
+public class UserAssociationCacheTest {
+
+    @Test
+    public void testGet_InvalidatedWhileLoading() {
+        UserAssociationCache cache = new UserAssociationCache(10, 60);
+        AtomicInteger loads = new AtomicInteger();
+
+        // The association changes after it is read, but before the read is cached.
+        cache.get("platform", "id", () -> {
+            loads.incrementAndGet();
+            cache.invalidate("platform", "id");
+            return null;
+        });
+
+        cache.get("platform", "id", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        assertEquals(2, loads.get());
+
+        // Loaded without interference, so remembered.
+        cache.get("platform", "id", () -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        assertEquals(2, loads.get());
+    }
+}
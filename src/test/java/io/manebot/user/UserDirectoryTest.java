@@ -0,0 +1,65 @@
+package io.manebot.user;
+
+import io.manebot.database.Database;
+import io.manebot.database.TestDatabases;
+import org.junit.Test;
+
+import java.sql.SQLException;
+import java.util.Properties;
+
+import static junit.framework.TestCase.*;
+
+public class UserDirectoryTest {
+
+    @Test
+    public void testRename() {
+        DefaultUserManager userManager =
+                new DefaultUserManager(TestDatabases.createSystemDatabase("UserDirectory_Rename"));
+        User user = userManager.createUser("user", UserType.COMMON);
+        userManager.loadDirectory();
+        assertTrue(userManager.getDirectory().isComplete());
+
+        // Renamed through the model, as a plugin would.
+        user.setDisplayName("Alice");
+
+        assertSame(user, userManager.getUserByDisplayName("ali"));
+
+        user.setDisplayName("Bob");
+
+        assertSame(user, userManager.getUserByDisplayName("bo"));
+        assertNull(userManager.getUserByDisplayName("ali"));
+    }
+
+    @Test
+    public void testOverflow() throws SQLException {
+        Database database = TestDatabases.createSystemDatabase("UserDirectory_Overflow");
+
+        Properties properties = new Properties();
+        properties.setProperty("directory.size", "2");
+        DefaultUserManager userManager = new DefaultUserManager(database, properties);
+
+        userManager.createUser("a", UserType.COMMON);
+        userManager.createUser("b", UserType.COMMON);
+        userManager.loadDirectory();
+        assertTrue(userManager.getDirectory().isComplete());
+
+        // A third user doesn't fit; lookups still find every user.
+        User c = userManager.createUser("c", UserType.COMMON);
+        assertFalse(userManager.getDirectory().isComplete());
+        assertSame(c, userManager.getUserByName("c"));
+        assertEquals(3, userManager.getUsers().size());
+
+        // Once users fit again, they are all held again.
+        database.executeTransaction(s -> {
+            s.remove(s.createQuery(
+                    "from " + io.manebot.database.model.User.class.getName() + " u where u.username = :username",
+                    io.manebot.database.model.User.class
+            ).setParameter("username", "c").getSingleResult());
+        });
+
+        assertTrue(userManager.getDirectory().isComplete());
+        assertNull(userManager.getUserByName("c"));
+        assertEquals(2, userManager.getUsers().size());
+    }
+
+}